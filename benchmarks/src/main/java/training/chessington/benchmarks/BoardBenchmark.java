@@ -0,0 +1,79 @@
+package training.chessington.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Fen;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.perft.PerftPosition;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private Board board;
+    private Coordinates[] coordinates;
+    private int quietMove;
+    private int capture;
+
+    @Setup
+    public void setUp() {
+        board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        coordinates = new Coordinates[64];
+        for (int square = 0; square < 64; square++) {
+            coordinates[square] = Bitboards.coordinates(square);
+        }
+        quietMove = Moves.of(Fen.parseSquare("a2"), Fen.parseSquare("a3"), Moves.QUIET);
+        capture = Moves.of(Fen.parseSquare("e5"), Fen.parseSquare("f7"), Moves.CAPTURE);
+    }
+
+    @Benchmark
+    public void getAllSquaresByCoordinates(Blackhole blackhole) {
+        for (Coordinates coords : coordinates) {
+            blackhole.consume(board.get(coords));
+        }
+    }
+
+    @Benchmark
+    public void getAllSquaresBySquareIndex(Blackhole blackhole) {
+        for (int square = 0; square < 64; square++) {
+            blackhole.consume(board.get(square));
+        }
+    }
+
+    @Benchmark
+    public long moveAndMoveBack() {
+        board.move(coordinates[48], coordinates[40]);
+        board.move(coordinates[40], coordinates[48]);
+        return board.getOccupied();
+    }
+
+    @Benchmark
+    public long makeAndUnmakeQuietMove() {
+        board.makeMove(quietMove);
+        long key = board.getZobristKey();
+        board.unmakeMove();
+        return key;
+    }
+
+    @Benchmark
+    public long makeAndUnmakeCapture() {
+        board.makeMove(capture);
+        long key = board.getZobristKey();
+        board.unmakeMove();
+        return key;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return board.isInCheck(PlayerColour.WHITE);
+    }
+}
@@ -0,0 +1,74 @@
+package training.chessington.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Fen;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.pieces.Piece;
+import training.chessington.perft.PerftPosition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation for every piece of one type belonging to the side to move, through both the packed
+ * {@code generateMoves} path and the {@code getAllowedMoves} list path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    public Piece.PieceType pieceType;
+
+    @Param({"START", "KIWIPETE"})
+    public PerftPosition position;
+
+    private Board board;
+    private int[] squares;
+    private Coordinates[] coordinates;
+    private Piece[] pieces;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    @Setup
+    public void setUp() {
+        board = Fen.parse(position.getFen());
+        long bitboard = board.getPieces(board.getSideToMove(), pieceType);
+        int count = Bitboards.count(bitboard);
+        squares = new int[count];
+        coordinates = new Coordinates[count];
+        pieces = new Piece[count];
+        for (int i = 0; i < count; i++, bitboard = Bitboards.withoutFirst(bitboard)) {
+            squares[i] = Bitboards.first(bitboard);
+            coordinates[i] = Bitboards.coordinates(squares[i]);
+            pieces[i] = board.get(squares[i]);
+        }
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        int count = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            count = pieces[i].generateMoves(squares[i], board, moves, count);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int getAllowedMoves() {
+        int count = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            count += pieces[i].getAllowedMoves(coordinates[i], board).size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int generateAllPseudoLegalMoves() {
+        return MoveGenerator.generatePseudoLegalMoves(board, moves, 0);
+    }
+}
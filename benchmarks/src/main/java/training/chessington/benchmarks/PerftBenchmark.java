@@ -0,0 +1,34 @@
+package training.chessington.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import training.chessington.model.Fen;
+import training.chessington.perft.Perft;
+import training.chessington.perft.PerftPosition;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+    @Param({"START", "KIWIPETE", "ROOK_ENDGAME", "PROMOTIONS", "DISCOVERED_CHECKS", "MIDDLEGAME"})
+    public PerftPosition position;
+
+    @Param({"3"})
+    public int depth;
+
+    private Perft perft;
+
+    @Setup
+    public void setUp() {
+        perft = new Perft(Fen.parse(position.getFen()));
+    }
+
+    @Benchmark
+    public long perft() {
+        return perft.count(depth);
+    }
+}
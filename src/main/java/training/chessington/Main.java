@@ -5,17 +5,45 @@ import javafx.scene.Group;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import training.chessington.book.OpeningBook;
+import training.chessington.engine.Search;
 import training.chessington.model.Board;
 import training.chessington.model.Game;
+import training.chessington.model.PlayerColour;
+import training.chessington.tablebase.Tablebase;
 import training.chessington.view.ChessApp;
 
+import java.nio.file.Paths;
+import java.util.Map;
+
 public class Main extends Application {
 
+    private static final long DEFAULT_ENGINE_MILLIS = 1000;
+
     @Override
     public void start(Stage primaryStage) throws Exception{
         Board board = Board.forNewGame();
         Game game = new Game(board);
-        Parent chessBoard = new ChessApp(game);
+        Map<String, String> options = getParameters().getNamed();
+        Tablebase tablebase = options.containsKey("tablebases")
+                ? Tablebase.open(Paths.get(options.get("tablebases")))
+                : null;
+        game.setTablebase(tablebase);
+        Parent chessBoard;
+        if (options.containsKey("engine")) {
+            PlayerColour engineColour = PlayerColour.valueOf(options.get("engine").toUpperCase());
+            long engineMillis = options.containsKey("engine-time")
+                    ? Long.parseLong(options.get("engine-time"))
+                    : DEFAULT_ENGINE_MILLIS;
+            Search engine = new Search();
+            if (options.containsKey("book")) {
+                engine.setOpeningBook(OpeningBook.open(Paths.get(options.get("book"))));
+            }
+            engine.setTablebase(tablebase);
+            chessBoard = new ChessApp(game, engine, engineColour, engineMillis);
+        } else {
+            chessBoard = new ChessApp(game);
+        }
         primaryStage.setTitle("Chessington");
         Scene scene = new Scene(new Group());
         primaryStage.setScene(scene);
@@ -0,0 +1,34 @@
+package training.chessington.analysis;
+
+import training.chessington.engine.SearchLimits;
+import training.chessington.model.Board;
+
+/**
+ * A position to analyse to a given depth, and how long the caller is prepared to wait for it.
+ */
+public final class AnalysisRequest {
+    private final Board board;
+    private final int depth;
+    private final long timeoutMillis;
+
+    public AnalysisRequest(Board board, int depth, long timeoutMillis) {
+        if (depth < 1 || depth > SearchLimits.MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + SearchLimits.MAX_DEPTH);
+        }
+        this.board = board.copy();
+        this.depth = depth;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
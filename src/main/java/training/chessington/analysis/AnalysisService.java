@@ -0,0 +1,239 @@
+package training.chessington.analysis;
+
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.engine.SearchResult;
+import training.chessington.engine.TranspositionTable;
+import training.chessington.model.Board;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analyses positions on a pool of searches, doing as little searching as it can get away with.
+ * A request is answered from a size-bounded LRU cache of results when one at least as deep is there.
+ * Otherwise it joins a search already running for the same position, to the same depth or deeper
+ * and with a deadline no earlier than its own. Only if neither is possible does it start a search
+ * of its own.
+ *
+ * <p>Waiting searches are run earliest deadline first, so a large batch cannot hold up a later
+ * request that is in a hurry. A search is given only the time left before its deadline. Every search
+ * shares one transposition table, so a deeper search of a position analysed before reuses the
+ * earlier work; and if the deadline cuts it short of a cached shallower result, that result is
+ * returned instead. A request whose deadline passes before its search starts gets the cached result
+ * if there is one, and otherwise fails with a {@link TimeoutException}.</p>
+ */
+public class AnalysisService implements AutoCloseable {
+    public static final int DEFAULT_CACHE_ENTRIES = 100_000;
+    public static final int DEFAULT_TABLE_MEGABYTES = 256;
+
+    private final ThreadPoolExecutor workers;
+    private final ThreadLocal<Search> searches;
+    private final Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, SearchResult> cache;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder searchesRun = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public AnalysisService(int threads) {
+        this(threads, DEFAULT_CACHE_ENTRIES, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    public AnalysisService(int threads, int cacheEntries, TranspositionTable table) {
+        this.searches = ThreadLocal.withInitial(() -> new Search(table));
+        this.cache = new LinkedHashMap<Long, SearchResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SearchResult> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<SearchResult> analyse(Board board, int depth, long timeoutMillis) {
+        return analyse(new AnalysisRequest(board, depth, timeoutMillis));
+    }
+
+    /**
+     * Analyses every request of {@code batch}, timing them all from the same moment so that requests
+     * with the same timeout have the same deadline.
+     */
+    public List<CompletableFuture<SearchResult>> analyseAll(List<AnalysisRequest> batch) {
+        long now = System.nanoTime();
+        List<CompletableFuture<SearchResult>> results = new ArrayList<>(batch.size());
+        for (AnalysisRequest request : batch) {
+            results.add(analyse(request, now));
+        }
+        return results;
+    }
+
+    public CompletableFuture<SearchResult> analyse(AnalysisRequest request) {
+        return analyse(request, System.nanoTime());
+    }
+
+    private CompletableFuture<SearchResult> analyse(AnalysisRequest request, long now) {
+        requests.increment();
+        long key = request.getBoard().getZobristKey();
+        SearchResult cached = cached(key);
+        if (cached != null && cached.getDepth() >= request.getDepth()) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(request.getTimeoutMillis());
+        InFlight[] started = new InFlight[1];
+        InFlight shared = inFlight.compute(key, (k, running) -> {
+            if (running != null && running.depth >= request.getDepth() && running.deadline - deadline >= 0) {
+                return running;
+            }
+            // A shallower or sooner search of the same position keeps running for the requests waiting on it
+            started[0] = new InFlight(key, request, deadline, nextSequence.getAndIncrement());
+            return started[0];
+        });
+        if (started[0] == null) {
+            coalesced.increment();
+        } else {
+            workers.execute(started[0]);
+        }
+        return shared.result;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Requests that shared a search started for an earlier request.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getSearches() {
+        return searchesRun.sum();
+    }
+
+    /**
+     * Searches whose deadline passed before they could start.
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * Cancels the requests still waiting for a search and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        for (Runnable waiting : workers.shutdownNow()) {
+            ((InFlight) waiting).result.cancel(false);
+        }
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SearchResult cached(long key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void store(long key, SearchResult result) {
+        synchronized (cache) {
+            SearchResult existing = cache.get(key);
+            if (existing == null || existing.getDepth() < result.getDepth()) {
+                cache.put(key, result);
+            }
+        }
+    }
+
+    private void run(InFlight task) {
+        try {
+            long remaining = task.deadline - System.nanoTime();
+            SearchResult cached = cached(task.key);
+            if (cached != null && cached.getDepth() >= task.depth) {
+                // A search that finished while this one waited, such as one with a sooner deadline
+                cacheHits.increment();
+                task.result.complete(cached);
+                return;
+            }
+            if (remaining <= 0) {
+                expired.increment();
+                if (cached != null) {
+                    task.result.complete(cached);
+                } else {
+                    task.result.completeExceptionally(new TimeoutException("Deadline passed before analysis started"));
+                }
+                return;
+            }
+
+            searchesRun.increment();
+            SearchLimits limits = new SearchLimits(task.request.getDepth(), Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            SearchResult result = searches.get().search(task.request.getBoard(), limits);
+            if (cached != null && cached.getDepth() > result.getDepth()) {
+                result = cached;
+            }
+            store(task.key, result);
+            task.result.complete(result);
+        } catch (RuntimeException | Error e) {
+            task.result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(task.key, task);
+        }
+    }
+
+    private final class InFlight implements Runnable, Comparable<InFlight> {
+        final long key;
+        final AnalysisRequest request;
+        final int depth;
+        final long deadline;
+        final long sequence;
+        final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+
+        InFlight(long key, AnalysisRequest request, long deadline, long sequence) {
+            this.key = key;
+            this.request = request;
+            this.depth = request.getDepth();
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            AnalysisService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(InFlight other) {
+            // Earliest deadline first, and first come first served between equal deadlines
+            int byDeadline = Long.compare(deadline - other.deadline, 0);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package training.chessington.book;
+
+import training.chessington.model.Board;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.pgn.PgnGame;
+import training.chessington.pgn.PgnReader;
+import training.chessington.pgn.San;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Builds an {@link OpeningBook} file from games. Every (position, move) pair from the first
+ * {@code maxPly} moves of each game is collected in a fixed-size chunk; a full chunk is sorted,
+ * merged into one record per pair and spilled to a temporary run file, and {@link #build} merges
+ * the runs into the book. Memory use is set by the chunk size, not by the number of games.
+ * Usage: {@code BookBuilder <output.book> <games.pgn>... }.
+ */
+public class BookBuilder implements Closeable {
+    public static final int DEFAULT_MAX_PLY = 30;
+    public static final int DEFAULT_CHUNK_ENTRIES = 1 << 22;
+
+    private static final int UNKNOWN_RESULT = -1;
+
+    private final int maxPly;
+    private final Path tempDirectory;
+    private final long[] keys;
+    // The move in the high bits and the points it scored, 0 to 2, in the low two bits
+    private final int[] movePoints;
+    private int size;
+    private final List<Path> runs = new ArrayList<>();
+    private long games;
+
+    public BookBuilder(Path tempDirectory) {
+        this(DEFAULT_MAX_PLY, DEFAULT_CHUNK_ENTRIES, tempDirectory);
+    }
+
+    public BookBuilder(int maxPly, int chunkEntries, Path tempDirectory) {
+        this.maxPly = maxPly;
+        this.tempDirectory = tempDirectory;
+        this.keys = new long[chunkEntries];
+        this.movePoints = new int[chunkEntries];
+    }
+
+    /**
+     * Adds the opening of a game by playing {@code moves} on {@code board}. {@code whitePoints} is 2,
+     * 1 or 0 for a white win, draw or loss, or negative if the result is unknown, in which case the
+     * moves are counted but score nothing.
+     */
+    public void addGame(Board board, int[] moves, int count, int whitePoints) throws IOException {
+        int plies = Math.min(count, maxPly);
+        for (int ply = 0; ply < plies; ply++) {
+            int points = whitePoints < 0 ? 0
+                    : board.getSideToMove() == PlayerColour.WHITE ? whitePoints : 2 - whitePoints;
+            add(board.getZobristKey(), moves[ply], points);
+            board.makeMove(moves[ply]);
+        }
+        games++;
+    }
+
+    /**
+     * Adds the opening of a PGN game, up to its first illegal or unreadable move.
+     */
+    public void addGame(PgnGame pgn) throws IOException {
+        Game game = new Game(pgn.createStartingBoard());
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        int[] moves = new int[Math.min(maxPly, pgn.getMoves().size())];
+        int count = 0;
+        for (; count < moves.length; count++) {
+            int move = San.parse(pgn.getMoves().get(count), game, buffer);
+            if (move == Moves.NONE) {
+                break;
+            }
+            game.makeMove(move);
+            moves[count] = move;
+        }
+        addGame(pgn.createStartingBoard(), moves, count, whitePoints(pgn.getResult()));
+    }
+
+    public void addAll(PgnReader reader) throws IOException {
+        for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+            addGame(game);
+        }
+    }
+
+    public long getGamesAdded() {
+        return games;
+    }
+
+    /**
+     * Writes the book to {@code output}. The temporary run files are deleted by {@link #close}.
+     */
+    public void build(Path output) throws IOException {
+        spill();
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try (DataOutputStream out = openOutput(output)) {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> compare(a.key, a.move, b.key, b.move));
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+
+            PositionWriter writer = new PositionWriter(out);
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                writer.add(reader.key, reader.move, reader.count, reader.points);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            writer.finishPosition();
+        } finally {
+            close(readers);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void add(long key, int move, int points) throws IOException {
+        if (size == keys.length) {
+            spill();
+        }
+        keys[size] = key;
+        movePoints[size] = move << 2 | points;
+        size++;
+    }
+
+    /**
+     * Sorts the current chunk and writes it as a run of (key, move, count, points) records, one per
+     * distinct pair.
+     */
+    private void spill() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        sort(0, size - 1);
+
+        Path run = Files.createTempFile(tempDirectory, "book-run", ".tmp");
+        runs.add(run);
+        try (DataOutputStream out = openOutput(run)) {
+            int i = 0;
+            while (i < size) {
+                long key = keys[i];
+                int move = movePoints[i] >>> 2;
+                long count = 0;
+                long points = 0;
+                for (; i < size && keys[i] == key && movePoints[i] >>> 2 == move; i++) {
+                    count++;
+                    points += movePoints[i] & 3;
+                }
+                out.writeLong(key);
+                out.writeShort(move);
+                out.writeLong(count);
+                out.writeLong(points);
+            }
+        }
+        size = 0;
+    }
+
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            long pivotKey = keys[middle];
+            int pivotMove = movePoints[middle] >>> 2;
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], movePoints[i] >>> 2, pivotKey, pivotMove) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], movePoints[j] >>> 2, pivotKey, pivotMove) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller half so the stack stays logarithmic
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compareEntries(j - 1, j) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int move = movePoints[a];
+        movePoints[a] = movePoints[b];
+        movePoints[b] = move;
+    }
+
+    private int compareEntries(int a, int b) {
+        return compare(keys[a], movePoints[a] >>> 2, keys[b], movePoints[b] >>> 2);
+    }
+
+    private static int compare(long keyA, int moveA, long keyB, int moveB) {
+        int byKey = Long.compareUnsigned(keyA, keyB);
+        return byKey != 0 ? byKey : Integer.compare(moveA, moveB);
+    }
+
+    private static int whitePoints(String result) {
+        switch (result) {
+            case "1-0":
+                return 2;
+            case "1/2-1/2":
+                return 1;
+            case "0-1":
+                return 0;
+            default:
+                return UNKNOWN_RESULT;
+        }
+    }
+
+    private static DataOutputStream openOutput(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    private static void close(List<RunReader> readers) throws IOException {
+        IOException failure = null;
+        for (RunReader reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        long key;
+        int move;
+        long count;
+        long points;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            move = in.readUnsignedShort();
+            count = in.readLong();
+            points = in.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Collects the merged moves of one position, then writes them most played first with weights
+     * scaled to the best-scoring move.
+     */
+    private static final class PositionWriter {
+        private final DataOutputStream out;
+        private final List<long[]> moves = new ArrayList<>();
+        private long key;
+
+        PositionWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void add(long key, int move, long count, long points) throws IOException {
+            if (!moves.isEmpty() && key != this.key) {
+                finishPosition();
+            }
+            this.key = key;
+            long[] last = moves.isEmpty() ? null : moves.get(moves.size() - 1);
+            if (last != null && last[0] == move) {
+                last[1] += count;
+                last[2] += points;
+            } else {
+                moves.add(new long[]{move, count, points});
+            }
+        }
+
+        void finishPosition() throws IOException {
+            long bestPoints = 0;
+            for (long[] move : moves) {
+                bestPoints = Math.max(bestPoints, move[2]);
+            }
+            moves.sort((a, b) -> Long.compare(b[1], a[1]));
+            for (long[] move : moves) {
+                out.writeLong(key);
+                out.writeShort((int) move[0]);
+                out.writeShort(bestPoints == 0 ? 0 : (int) (move[2] * BookFormat.MAX_WEIGHT / bestPoints));
+                out.writeInt((int) Math.min(move[1], BookFormat.MAX_COUNT));
+            }
+            moves.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BookBuilder <output.book> <games.pgn>...");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        long start = System.nanoTime();
+        try (BookBuilder builder = new BookBuilder(output.toAbsolutePath().getParent())) {
+            for (int i = 1; i < args.length; i++) {
+                try (PgnReader reader = PgnReader.open(Paths.get(args[i]))) {
+                    builder.addAll(reader);
+                }
+            }
+            builder.build(output);
+            System.out.printf("%,d games, %,d book records in %.1f s%n", builder.getGamesAdded(),
+                    Files.size(output) / BookFormat.RECORD_BYTES, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package training.chessington.book;
+
+/**
+ * The layout of an opening book file: 16-byte big-endian records sorted by position key, compared
+ * as unsigned, and within a key by descending count.
+ * <pre>
+ *  0  8 bytes  Zobrist key of the position
+ *  8  2 bytes  move, packed as in {@link training.chessington.model.Moves}
+ * 10  2 bytes  weight, unsigned
+ * 12  4 bytes  number of games the move was played in, unsigned
+ * </pre>
+ */
+public final class BookFormat {
+    public static final int RECORD_BYTES = 16;
+    public static final int MAX_WEIGHT = 0xFFFF;
+    public static final long MAX_COUNT = 0xFFFFFFFFL;
+
+    static final int KEY_OFFSET = 0;
+    static final int MOVE_OFFSET = 8;
+    static final int WEIGHT_OFFSET = 10;
+    static final int COUNT_OFFSET = 12;
+
+    private BookFormat() {
+    }
+}
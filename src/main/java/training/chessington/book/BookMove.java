@@ -0,0 +1,42 @@
+package training.chessington.book;
+
+import training.chessington.model.Moves;
+
+/**
+ * One book entry: a move played from a position, how often it was played and how well it scored.
+ */
+public final class BookMove {
+    private final int move;
+    private final int weight;
+    private final long count;
+
+    public BookMove(int move, int weight, long count) {
+        this.move = move;
+        this.weight = weight;
+        this.count = count;
+    }
+
+    /**
+     * The move in the packed form of {@link Moves}.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * The move's score for the side playing it, as two points per win and one per draw, scaled so
+     * that the best-scoring move from the position has weight {@link BookFormat#MAX_WEIGHT}.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (weight %d, played %d times)", Moves.toUci(move), weight, count);
+    }
+}
@@ -0,0 +1,158 @@
+package training.chessington.book;
+
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only access to a book file written by {@link BookBuilder}. The file is memory-mapped in
+ * segments of at most 1 GB, since a single mapping is limited to 2 GB, and looked up by binary
+ * search, so only the pages a lookup touches are ever read and nothing is copied onto the heap.
+ * Lookups do not change any state and may run on any number of threads.
+ */
+public class OpeningBook implements Closeable {
+    private static final int DEFAULT_SEGMENT_SHIFT = 26;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final long recordCount;
+
+    OpeningBook(FileChannel channel, int segmentShift) throws IOException {
+        long size = channel.size();
+        if (size % BookFormat.RECORD_BYTES != 0) {
+            throw new IOException("Book file size " + size + " is not a whole number of records");
+        }
+
+        this.channel = channel;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        this.recordCount = size / BookFormat.RECORD_BYTES;
+
+        long recordsPerSegment = 1L << segmentShift;
+        int segmentCount = (int) ((recordCount + recordsPerSegment - 1) / recordsPerSegment);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = i * recordsPerSegment;
+            long records = Math.min(recordsPerSegment, recordCount - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    first * BookFormat.RECORD_BYTES, records * BookFormat.RECORD_BYTES);
+        }
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel, DEFAULT_SEGMENT_SHIFT);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * The moves recorded for the position with the given key, most played first.
+     */
+    public List<BookMove> getMoves(long key) {
+        long index = firstIndexOf(key);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<BookMove> moves = new ArrayList<>();
+        for (; index < recordCount && keyAt(index) == key; index++) {
+            moves.add(new BookMove(moveAt(index), weightAt(index), countAt(index)));
+        }
+        return moves;
+    }
+
+    /**
+     * The book moves that are legal in {@code board}. Checking legality guards against the rare
+     * position whose key collides with one in the book.
+     */
+    public List<BookMove> getMoves(Board board) {
+        List<BookMove> moves = getMoves(board.getZobristKey());
+        if (moves.isEmpty()) {
+            return moves;
+        }
+        int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+        int legalCount = MoveGenerator.generateLegalMoves(board, legalMoves, 0);
+        List<BookMove> legal = new ArrayList<>(moves.size());
+        for (BookMove move : moves) {
+            for (int i = 0; i < legalCount; i++) {
+                if (legalMoves[i] == move.getMove()) {
+                    legal.add(move);
+                    break;
+                }
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * The most played legal book move in {@code board}, or {@link Moves#NONE} if the position is not
+     * in the book.
+     */
+    public int getMostPlayedMove(Board board) {
+        List<BookMove> moves = getMoves(board);
+        return moves.isEmpty() ? Moves.NONE : moves.get(0).getMove();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Mappings stay valid until garbage collected; closing the channel only releases the descriptor
+        channel.close();
+    }
+
+    private long firstIndexOf(long key) {
+        long low = 0;
+        long high = recordCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < recordCount && keyAt(low) == key ? low : -1;
+    }
+
+    private long keyAt(long index) {
+        return segment(index).getLong(offset(index) + BookFormat.KEY_OFFSET);
+    }
+
+    private int moveAt(long index) {
+        return segment(index).getShort(offset(index) + BookFormat.MOVE_OFFSET) & 0xFFFF;
+    }
+
+    private int weightAt(long index) {
+        return segment(index).getShort(offset(index) + BookFormat.WEIGHT_OFFSET) & 0xFFFF;
+    }
+
+    private long countAt(long index) {
+        return segment(index).getInt(offset(index) + BookFormat.COUNT_OFFSET) & BookFormat.MAX_COUNT;
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index >>> segmentShift)];
+    }
+
+    private int offset(long index) {
+        return (int) (index & segmentMask) * BookFormat.RECORD_BYTES;
+    }
+}
@@ -0,0 +1,59 @@
+package training.chessington.codec;
+
+import training.chessington.model.Board;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A game as its starting position ({@link PositionCodec}) followed by the moves played from it
+ * ({@link MoveCodec}): 34 bytes plus two per move.
+ */
+public final class GameCodec {
+    private GameCodec() {
+    }
+
+    public static int encodedSize(Game game) {
+        return PositionCodec.BYTES + MoveCodec.encodedSize(game.getMoveCount());
+    }
+
+    public static void encode(Game game, ByteBuffer buffer) {
+        Board board = game.copyBoard();
+        int[] moves = new int[game.getMoveCount()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = game.getMove(ply);
+            board.unmakeMove();
+        }
+        PositionCodec.encode(board, buffer);
+        MoveCodec.encode(moves, moves.length, buffer);
+    }
+
+    /**
+     * Reads a game and replays its moves, checking each against the legal moves of its position so
+     * that a corrupt record is rejected rather than producing an impossible board.
+     */
+    public static Game decode(ByteBuffer buffer) {
+        Game game = new Game(PositionCodec.decode(buffer));
+        int[] moves = MoveCodec.decode(buffer);
+        int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (!contains(legalMoves, game.getLegalMoves(legalMoves), moves[ply])) {
+                throw new IllegalArgumentException("Corrupt game record: " + Moves.toUci(moves[ply])
+                        + " at ply " + (ply + 1) + " is not legal");
+            }
+            game.makeMove(moves[ply]);
+        }
+        return game;
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package training.chessington.codec;
+
+import training.chessington.model.Game;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records written by {@link GameWriter} one game at a time through a reusable buffer.
+ */
+public class GameReader implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final int HEADER_BYTES = PositionCodec.BYTES + Short.BYTES;
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+
+    public GameReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GameReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, HEADER_BYTES));
+        this.buffer.limit(0);
+    }
+
+    public static GameReader open(Path path) throws IOException {
+        return new GameReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * The next game, or null at the end of the input.
+     */
+    public Game next() throws IOException {
+        if (!fill(HEADER_BYTES)) {
+            if (buffer.hasRemaining()) {
+                throw new EOFException("Truncated game record");
+            }
+            return null;
+        }
+        int countOffset = buffer.position() + PositionCodec.BYTES;
+        int moveCount = (buffer.get(countOffset) & 0xFF) | (buffer.get(countOffset + 1) & 0xFF) << 8;
+        if (!fill(PositionCodec.BYTES + MoveCodec.encodedSize(moveCount))) {
+            throw new EOFException("Truncated game record");
+        }
+        return GameCodec.decode(buffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes at least {@code bytes} bytes available from the buffer's position, growing the buffer for
+     * a record larger than it, and returns false if the input ends first.
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfInput) {
+            endOfInput = channel.read(buffer) < 0;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
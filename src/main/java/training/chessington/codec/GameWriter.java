@@ -0,0 +1,80 @@
+package training.chessington.codec;
+
+import training.chessington.model.Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@link GameCodec} records back to back to a channel through one reusable direct buffer.
+ */
+public class GameWriter implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long gamesWritten;
+
+    public GameWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GameWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Opens a game file for appending, creating it if needed.
+     */
+    public static GameWriter append(Path path) throws IOException {
+        return new GameWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    public void write(Game game) throws IOException {
+        int size = GameCodec.encodedSize(game);
+        if (size > buffer.remaining()) {
+            flush();
+        }
+        if (size > buffer.capacity()) {
+            ByteBuffer large = ByteBuffer.allocate(size);
+            GameCodec.encode(game, large);
+            large.flip();
+            writeFully(large);
+        } else {
+            GameCodec.encode(game, buffer);
+        }
+        gamesWritten++;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
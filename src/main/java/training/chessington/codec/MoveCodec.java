@@ -0,0 +1,62 @@
+package training.chessington.codec;
+
+import training.chessington.model.Moves;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Move lists at 16 bits per move: a little-endian unsigned 16-bit count followed by each move in the
+ * packed form of {@link Moves}, which already fits in 16 bits.
+ */
+public final class MoveCodec {
+    public static final int MAX_MOVES = 0xFFFF;
+
+    private MoveCodec() {
+    }
+
+    public static int encodedSize(int count) {
+        return Short.BYTES * (count + 1);
+    }
+
+    public static void encode(int[] moves, int count, ByteBuffer buffer) {
+        if (count > MAX_MOVES) {
+            throw new IllegalArgumentException("Cannot encode more than " + MAX_MOVES + " moves");
+        }
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort((short) moves[i]);
+        }
+        buffer.order(order);
+    }
+
+    /**
+     * Reads a move list into {@code moves}, which must be large enough, and returns the count.
+     */
+    public static int decode(ByteBuffer buffer, int[] moves) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int count = buffer.getShort() & 0xFFFF;
+            if (count > moves.length) {
+                throw new IllegalArgumentException("Move list of " + count + " does not fit in " + moves.length);
+            }
+            for (int i = 0; i < count; i++) {
+                moves[i] = buffer.getShort() & 0xFFFF;
+            }
+            return count;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    public static int[] decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int count = (buffer.get(start) & 0xFF) | (buffer.get(start + 1) & 0xFF) << 8;
+        int[] moves = new int[count];
+        decode(buffer, moves);
+        return moves;
+    }
+}
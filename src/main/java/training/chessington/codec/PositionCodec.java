@@ -0,0 +1,165 @@
+package training.chessington.codec;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * A fixed-size 32-byte binary encoding of a position, in little-endian byte order:
+ * <pre>
+ *  0  8 bytes  occupancy bitboard (bit n set if square n holds a piece)
+ *  8 16 bytes  one nibble per occupied square in square order, low nibble first: colour * 6 + type
+ * 24  1 byte   bit 0 black to move, bits 1-4 castling rights
+ * 25  1 byte   en passant square, or 0xFF for none
+ * 26  2 bytes  halfmove clock
+ * 28  2 bytes  fullmove number
+ * 30  2 bytes  reserved, zero
+ * </pre>
+ * Being fixed-size, records in a file can be read by index without an index of their own.
+ */
+public final class PositionCodec {
+    public static final int BYTES = 32;
+
+    private static final int MAX_PIECES = 32;
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final Piece.PieceType[] TYPES = Piece.PieceType.values();
+
+    private PositionCodec() {
+    }
+
+    /**
+     * Writes {@code board} at the buffer's position and advances it by {@link #BYTES}.
+     */
+    public static void encode(Board board, ByteBuffer buffer) {
+        long occupied = board.getOccupied();
+        if (Bitboards.count(occupied) > MAX_PIECES) {
+            throw new IllegalArgumentException("Cannot encode a position with more than " + MAX_PIECES + " pieces");
+        }
+
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(occupied);
+
+        long low = 0;
+        long high = 0;
+        int index = 0;
+        for (long squares = occupied; squares != 0; squares = Bitboards.withoutFirst(squares), index++) {
+            Piece piece = board.get(Bitboards.first(squares));
+            long code = piece.getColour().ordinal() * 6 + piece.getType().ordinal();
+            if (index < 16) {
+                low |= code << (index * 4);
+            } else {
+                high |= code << ((index - 16) * 4);
+            }
+        }
+        buffer.putLong(low);
+        buffer.putLong(high);
+
+        int enPassant = board.getEnPassantSquare();
+        buffer.put((byte) ((board.getSideToMove() == PlayerColour.BLACK ? 1 : 0) | (board.getCastlingRights() << 1)));
+        buffer.put((byte) (enPassant == Board.NO_SQUARE ? NO_EN_PASSANT : enPassant));
+        buffer.putShort((short) Math.min(board.getHalfmoveClock(), 0xFFFF));
+        buffer.putShort((short) Math.min(board.getFullmoveNumber(), 0xFFFF));
+        buffer.putShort((short) 0);
+        buffer.order(order);
+    }
+
+    public static Board decode(ByteBuffer buffer) {
+        Board board = Board.empty();
+        decode(buffer, board);
+        return board;
+    }
+
+    /**
+     * Clears {@code board} and sets it up from the record at the buffer's position, advancing it by
+     * {@link #BYTES}.
+     */
+    public static void decode(ByteBuffer buffer, Board board) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            long occupied = buffer.getLong();
+            long low = buffer.getLong();
+            long high = buffer.getLong();
+            int state = buffer.get() & 0xFF;
+            int enPassant = buffer.get() & 0xFF;
+            int halfmoveClock = buffer.getShort() & 0xFFFF;
+            int fullmoveNumber = buffer.getShort() & 0xFFFF;
+            buffer.getShort();
+
+            if (Bitboards.count(occupied) > MAX_PIECES || state > 0x1F
+                    || enPassant != NO_EN_PASSANT && enPassant > 63) {
+                throw new IllegalArgumentException("Corrupt position record");
+            }
+
+            board.clear();
+            int index = 0;
+            for (long squares = occupied; squares != 0; squares = Bitboards.withoutFirst(squares), index++) {
+                int code = (int) ((index < 16 ? low >>> (index * 4) : high >>> ((index - 16) * 4)) & 0xF);
+                if (code >= 12) {
+                    throw new IllegalArgumentException("Corrupt position record: piece code " + code);
+                }
+                board.placePiece(Bitboards.first(squares),
+                        Pieces.of(TYPES[code % 6], code < 6 ? PlayerColour.WHITE : PlayerColour.BLACK));
+            }
+            board.setSideToMove((state & 1) != 0 ? PlayerColour.BLACK : PlayerColour.WHITE);
+            board.setCastlingRights(state >>> 1);
+            board.setEnPassantSquare(enPassant == NO_EN_PASSANT ? Board.NO_SQUARE : enPassant);
+            board.setHalfmoveClock(halfmoveClock);
+            board.setFullmoveNumber(fullmoveNumber);
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    /**
+     * Appends the positions to the end of {@code channel}, one buffer-full at a time.
+     */
+    public static void writeAll(FileChannel channel, List<Board> boards) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BYTES * Math.max(1, Math.min(boards.size(), 4096)));
+        long position = channel.size();
+        for (Board board : boards) {
+            if (buffer.remaining() < BYTES) {
+                position += flush(channel, buffer, position);
+            }
+            encode(board, buffer);
+        }
+        flush(channel, buffer, position);
+    }
+
+    /**
+     * Sets up {@code board} from the {@code index}th record of a file of positions.
+     */
+    public static void read(FileChannel channel, long index, Board board, ByteBuffer scratch) throws IOException {
+        scratch.clear().limit(BYTES);
+        long position = index * BYTES;
+        while (scratch.hasRemaining()) {
+            if (channel.read(scratch, position + scratch.position()) < 0) {
+                throw new IOException("No position record " + index);
+            }
+        }
+        scratch.flip();
+        decode(scratch, board);
+    }
+
+    public static long count(FileChannel channel) throws IOException {
+        return channel.size() / BYTES;
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        buffer.clear();
+        return written;
+    }
+}
@@ -0,0 +1,28 @@
+package training.chessington.engine;
+
+import training.chessington.model.Board;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.Piece;
+
+/**
+ * Scores positions for the search. Piece values here are only for ordering and exchange decisions;
+ * positions are scored by {@link Board#getEvaluation}.
+ */
+public final class Evaluation {
+    private static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    private Evaluation() {
+    }
+
+    public static int pieceValue(Piece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+
+    /**
+     * The board's incrementally kept evaluation, from the point of view of the side to move.
+     */
+    public static int evaluate(Board board) {
+        int score = board.getEvaluation();
+        return board.getSideToMove() == PlayerColour.WHITE ? score : -score;
+    }
+}
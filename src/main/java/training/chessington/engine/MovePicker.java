@@ -0,0 +1,255 @@
+package training.chessington.engine;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.Piece;
+
+/**
+ * Hands out the pseudo-legal moves of a position one at a time, in stages: the hash move, captures
+ * that do not lose material, the two killer moves, quiet moves by history score, and finally captures
+ * that lose material. Each stage is generated only once the earlier ones are used up, so a node that
+ * cuts off on its hash move or a good capture never generates its quiet moves at all.
+ *
+ * <p>Moves are not checked for legality; the caller plays each one and skips it if it leaves the
+ * king in check. A picker is reused for every node at one ply and must not be shared between
+ * threads.</p>
+ */
+final class MovePicker {
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int BAD_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    // Cheapest first
+    private static final Piece.PieceType[] TYPES = Piece.PieceType.values();
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+    private final int[] badCaptures = new int[MoveGenerator.MAX_MOVES];
+    private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    private final int[] gains = new int[32];
+
+    private Board board;
+    private int[] history;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private boolean capturesOnly;
+
+    private int stage;
+    private int next;
+    private int count;
+    private int badCaptureCount;
+    private int nextBadCapture;
+
+    /**
+     * Starts picking the moves of {@code board}. {@code history} is indexed by
+     * {@code from * 64 + to} for the side to move.
+     */
+    void reset(Board board, int hashMove, int firstKiller, int secondKiller, int[] history) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.history = history;
+        this.capturesOnly = false;
+        stage = HASH_MOVE;
+        next = 0;
+        count = 0;
+        badCaptureCount = 0;
+        nextBadCapture = 0;
+    }
+
+    /**
+     * Starts picking only the captures and promotions of {@code board} that do not lose material, as
+     * quiescence search wants.
+     */
+    void resetCaptures(Board board) {
+        reset(board, Moves.NONE, Moves.NONE, Moves.NONE, null);
+        capturesOnly = true;
+        stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * The next move, or {@link Moves#NONE} once every stage is used up.
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (MoveGenerator.isPseudoLegal(board, hashMove, buffer)) {
+                        return hashMove;
+                    }
+                    break;
+                case GENERATE_CAPTURES:
+                    count = MoveGenerator.generatePseudoLegalMoves(board, MoveGenerator.CAPTURES, moves, 0);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = mvvLva(moves[i]);
+                    }
+                    next = 0;
+                    stage = GOOD_CAPTURES;
+                    break;
+                case GOOD_CAPTURES:
+                    while (next < count) {
+                        int move = pickNext();
+                        if (move == hashMove) {
+                            continue;
+                        }
+                        if (!Moves.isPromotion(move) && staticExchange(board, move) < 0) {
+                            badCaptures[badCaptureCount++] = move;
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = capturesOnly ? DONE : FIRST_KILLER;
+                    break;
+                case FIRST_KILLER:
+                    stage = SECOND_KILLER;
+                    if (isUsableKiller(firstKiller)) {
+                        return firstKiller;
+                    }
+                    break;
+                case SECOND_KILLER:
+                    stage = GENERATE_QUIETS;
+                    if (secondKiller != firstKiller && isUsableKiller(secondKiller)) {
+                        return secondKiller;
+                    }
+                    break;
+                case GENERATE_QUIETS:
+                    count = MoveGenerator.generatePseudoLegalMoves(board, MoveGenerator.QUIETS, moves, 0);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = history[Moves.from(moves[i]) * 64 + Moves.to(moves[i])];
+                    }
+                    next = 0;
+                    stage = QUIETS;
+                    break;
+                case QUIETS:
+                    while (next < count) {
+                        int move = pickNext();
+                        if (move != hashMove && move != firstKiller && move != secondKiller) {
+                            return move;
+                        }
+                    }
+                    stage = BAD_CAPTURES;
+                    break;
+                case BAD_CAPTURES:
+                    if (nextBadCapture < badCaptureCount) {
+                        return badCaptures[nextBadCapture++];
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return Moves.NONE;
+            }
+        }
+    }
+
+    private boolean isUsableKiller(int killer) {
+        return killer != hashMove
+                && !Moves.isCapture(killer) && !Moves.isPromotion(killer)
+                && MoveGenerator.isPseudoLegal(board, killer, buffer);
+    }
+
+    /**
+     * Selection sort, one step at a time: most nodes use only the first few moves of a stage.
+     */
+    private int pickNext() {
+        int best = next;
+        for (int i = next + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[next];
+        moves[next] = move;
+        int score = scores[best];
+        scores[best] = scores[next];
+        scores[next] = score;
+        next++;
+        return move;
+    }
+
+    private int mvvLva(int move) {
+        Piece attacker = board.get(Moves.from(move));
+        int victimValue = capturedValue(board, move);
+        if (Moves.isPromotion(move)) {
+            victimValue += Evaluation.pieceValue(Moves.promotionType(move));
+        }
+        return victimValue * 16 - Evaluation.pieceValue(attacker.getType()) / 16;
+    }
+
+    /**
+     * The material {@code move} wins or loses once both sides have made every capture on its
+     * target square that pays off for them, cheapest attacker first. Pieces that move off a line
+     * reveal the sliders behind them. A capture by a piece worth no more than its victim cannot
+     * lose material, so for those only that lower bound is returned.
+     */
+    int staticExchange(Board board, int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int attackerValue = Evaluation.pieceValue(board.get(from).getType());
+        int victimValue = capturedValue(board, move);
+        if (attackerValue <= victimValue) {
+            return victimValue - attackerValue;
+        }
+
+        long occupied = board.getOccupied() ^ Bitboards.bit(from);
+        if (Moves.flags(move) == Moves.EN_PASSANT) {
+            // The captured pawn stands behind the target square, seen from the capturer
+            occupied ^= Bitboards.bit(board.getSideToMove() == PlayerColour.WHITE ? to + 8 : to - 8);
+        }
+        gains[0] = victimValue;
+        int depth = 0;
+        PlayerColour side = board.getSideToMove().opponent();
+        while (true) {
+            long attackers = board.attackersOf(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            int square = cheapestAttacker(board, attackers, side);
+            Piece.PieceType type = board.get(square).getType();
+            if (type == Piece.PieceType.KING
+                    && (board.attackersOf(to, side.opponent(), occupied) & occupied) != 0) {
+                // The king cannot capture into a defended square
+                break;
+            }
+            depth++;
+            gains[depth] = attackerValue - gains[depth - 1];
+            attackerValue = Evaluation.pieceValue(type);
+            occupied ^= Bitboards.bit(square);
+            side = side.opponent();
+        }
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    private static int cheapestAttacker(Board board, long attackers, PlayerColour side) {
+        for (Piece.PieceType type : TYPES) {
+            long ofType = attackers & board.getPieces(side, type);
+            if (ofType != 0) {
+                return Bitboards.first(ofType);
+            }
+        }
+        throw new IllegalStateException("No attacker among " + Long.toHexString(attackers));
+    }
+
+    private static int capturedValue(Board board, int move) {
+        if (Moves.flags(move) == Moves.EN_PASSANT) {
+            return Evaluation.pieceValue(Piece.PieceType.PAWN);
+        }
+        return Moves.isCapture(move) ? Evaluation.pieceValue(board.get(Moves.to(move)).getType()) : 0;
+    }
+}
@@ -0,0 +1,375 @@
+package training.chessington.engine;
+
+import training.chessington.book.OpeningBook;
+import training.chessington.metrics.Metrics;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.parallel.SubtreeSearch;
+import training.chessington.tablebase.Tablebase;
+
+/**
+ * Negamax alpha-beta search with iterative deepening and quiescence search. Moves are ordered by
+ * the previous iteration's best move at the root; elsewhere a {@link MovePicker} hands them out in
+ * stages, starting with the transposition table's move, so that cut nodes seldom generate all
+ * their moves. A timed search never runs past its budget: it is abandoned mid-iteration
+ * and the best move of the last completed iteration is returned.
+ *
+ * <p>A Search keeps per-search state and must only be used by one thread at a time.</p>
+ */
+public class Search implements SubtreeSearch {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH * 2;
+    private static final int TIME_CHECK_INTERVAL = 1023;
+
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final TranspositionTable table;
+    private OpeningBook book;
+    private Tablebase tablebase;
+
+    private Board board;
+    private long nodes;
+    private long tableProbes;
+    private long tableHits;
+    private long deadline;
+    private boolean timed;
+    private volatile boolean stopped;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a search using the given table, which may be shared with searches on other threads.
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply < pickers.length; ply++) {
+            pickers[ply] = new MovePicker();
+        }
+    }
+
+    public SearchResult search(Board position, SearchLimits limits) {
+        long start = System.nanoTime();
+        if (book != null) {
+            int bookMove = book.getMostPlayedMove(position);
+            if (bookMove != Moves.NONE) {
+                return new SearchResult(bookMove, 0, 0, 0, elapsedMillis(start));
+            }
+        }
+
+        prepare(position.copy());
+        table.newSearch();
+        timed = limits.isTimed();
+        deadline = timed ? start + limits.getMoveTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+
+        int rootCount = MoveGenerator.generateLegalMoves(board, rootMoves, 0);
+        if (rootCount == 0) {
+            int score = board.isInCheck(board.getSideToMove()) ? -MATE : 0;
+            return new SearchResult(Moves.NONE, score, 0, 0, elapsedMillis(start));
+        }
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            int score = searchRoot(rootMoves, rootCount, depth);
+            if (stopped) {
+                break;
+            }
+
+            bestMove = rootMoves[0];
+            bestScore = score;
+            completedDepth = depth;
+            if (rootCount == 1 && timed || Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+            if (timed && System.nanoTime() - start > (deadline - start) / 2) {
+                // Another iteration would most likely not finish in the remaining time
+                break;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.SEARCH.recordSince(start);
+            Metrics.SEARCH_NODES.add(nodes);
+            Metrics.TABLE_PROBES.add(tableProbes);
+            Metrics.TABLE_HITS.add(tableHits);
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Fixed-depth search without a time limit, for use as a {@link SubtreeSearch}.
+     */
+    @Override
+    public int search(Board position, int depth) {
+        prepare(position);
+        timed = false;
+        return alphaBeta(depth, 0, -INFINITY, INFINITY);
+    }
+
+    /**
+     * Makes {@link #search(Board, SearchLimits)} play the most played book move whenever the position is
+     * in {@code book}, or search as usual if {@code book} is null.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Makes the search score every position covered by {@code tablebase} by its distance to mate
+     * instead of searching it, or search as usual if {@code tablebase} is null.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void prepare(Board position) {
+        board = position;
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        stopped = false;
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Moves.NONE;
+            plyKillers[1] = Moves.NONE;
+        }
+        for (int[] colourHistory : history) {
+            for (int i = 0; i < colourHistory.length; i++) {
+                colourHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Searches every root move and moves the best one to the front, so that the next iteration tries
+     * it first and the caller can read it from {@code rootMoves[0]}.
+     */
+    private int searchRoot(int[] rootMoves, int rootCount, int depth) {
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < rootCount; i++) {
+            board.makeMove(rootMoves[i]);
+            int score = -alphaBeta(depth - 1, 1, -INFINITY, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return alpha;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+            }
+        }
+
+        int best = rootMoves[bestIndex];
+        System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+        rootMoves[0] = best;
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        PlayerColour us = board.getSideToMove();
+        boolean inCheck = board.isInCheck(us);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        if (board.getHalfmoveClock() >= 100 || ply > 0 && board.isRepetition()) {
+            return 0;
+        }
+        if (ply > 0 && tablebase != null && Bitboards.count(board.getOccupied()) <= tablebase.getMaxPieces()) {
+            int value = tablebase.probe(board);
+            if (value != Tablebase.NOT_FOUND) {
+                return tablebaseScore(value, ply);
+            }
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(board);
+        }
+
+        long key = board.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Moves.NONE;
+        if (Metrics.ENABLED) {
+            tableProbes++;
+            tableHits += entry != TranspositionTable.MISS ? 1 : 0;
+        }
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                        || bound == TranspositionTable.UPPER_BOUND && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.reset(board, hashMove, killers[ply][0], killers[ply][1], history[us.ordinal()]);
+
+        int originalAlpha = alpha;
+        int legalMoves = 0;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            board.makeMove(move);
+            if (board.isInCheck(us)) {
+                board.unmakeMove();
+                continue;
+            }
+            legalMoves++;
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!Moves.isCapture(move) && !Moves.isPromotion(move)) {
+                            rememberQuietCutoff(move, ply, depth, us);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT
+                : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTableScore(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        int standPat = Evaluation.evaluate(board);
+        if (ply >= MAX_PLY || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        PlayerColour us = board.getSideToMove();
+        MovePicker picker = pickers[ply];
+        picker.resetCaptures(board);
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            board.makeMove(move);
+            if (board.isInCheck(us)) {
+                board.unmakeMove();
+                continue;
+            }
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean countNode() {
+        if ((++nodes & TIME_CHECK_INTERVAL) == 0 && timed && System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Mate scores are stored relative to the node rather than the root, so that an entry stays correct
+     * when the same position is reached at a different ply.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * The score of a tablebase value at {@code ply}: a mate score when the mate is close enough to
+     * count as one, and just short of it otherwise.
+     */
+    private static int tablebaseScore(int value, int ply) {
+        if (value == 0) {
+            return 0;
+        }
+        int distance = Math.min(ply + Tablebase.pliesToMate(value), MAX_PLY + 1);
+        return Tablebase.isWin(value) ? MATE - distance : -MATE + distance;
+    }
+
+    private void rememberQuietCutoff(int move, int ply, int depth, PlayerColour us) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] colourHistory = history[us.ordinal()];
+        int index = Moves.from(move) * 64 + Moves.to(move);
+        colourHistory[index] = Math.min(HISTORY_LIMIT, colourHistory[index] + depth * depth);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+}
@@ -0,0 +1,36 @@
+package training.chessington.engine;
+
+public final class SearchLimits {
+    public static final int MAX_DEPTH = 64;
+
+    private final int maxDepth;
+    private final long moveTimeMillis;
+
+    public SearchLimits(int maxDepth, long moveTimeMillis) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH);
+        }
+        this.maxDepth = maxDepth;
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits moveTime(long moveTimeMillis) {
+        return new SearchLimits(MAX_DEPTH, moveTimeMillis);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public boolean isTimed() {
+        return moveTimeMillis != Long.MAX_VALUE;
+    }
+}
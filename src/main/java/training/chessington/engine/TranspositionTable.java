@@ -0,0 +1,214 @@
+package training.chessington.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size hash table of search results shared by every search thread without locking.
+ *
+ * <p>Entries are two longs: the position key XORed with the data, then the data itself. Writes from
+ * different threads may interleave, and a reader only accepts an entry if the two halves XOR back to
+ * the key it asked for, so a torn or foreign entry just reads as a miss. Entries live in buckets of
+ * four (one 64-byte cache line); a store replaces the entry for the same position, an empty slot, or
+ * else the slot whose entry is shallowest once entries from older searches are marked down.</p>
+ *
+ * <p>The packed data holds the move in bits 0-15, the score in bits 16-31, the depth in bits 32-39,
+ * the bound in bits 40-41 and the search age in bits 42-49. {@link #probe} returns it as a long so
+ * that a lookup allocates nothing; use the static accessors to unpack it.</p>
+ */
+public class TranspositionTable {
+    public static final long MISS = 0;
+
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BUCKET_LONGS = BUCKET_ENTRIES * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+    private static final int MAX_DEPTH = 0xFF;
+    private static final int AGE_MASK = 0xFF;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    /**
+     * Creates a table using at most {@code megabytes} of heap, rounded down to a power of two of buckets.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > 8192) {
+            throw new IllegalArgumentException("Transposition table size must be between 1 and 8192 MB");
+        }
+        int buckets = (int) Long.highestOneBit(megabytes * 1024L * 1024L / BYTES_PER_BUCKET);
+        this.table = new long[buckets * BUCKET_LONGS];
+        this.bucketMask = buckets - 1;
+    }
+
+    public long probe(long key) {
+        probes.increment();
+        int bucket = bucketStart(key);
+        boolean full = true;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += LONGS_PER_ENTRY) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != MISS) {
+                hits.increment();
+                return data;
+            }
+            if (data == MISS) {
+                full = false;
+            }
+        }
+        if (full) {
+            collisions.increment();
+        }
+        return MISS;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        int bucket = bucketStart(key);
+        int currentAge = age;
+        int replace = bucket;
+        int replaceWorth = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += LONGS_PER_ENTRY) {
+            long data = table[i + 1];
+            if (data == MISS) {
+                replace = i;
+                break;
+            }
+            if ((table[i] ^ data) == key) {
+                if (depth < depth(data) && bound != EXACT && age(data) == currentAge) {
+                    // Keep the deeper result for this position, but remember the newer move
+                    if (move != 0 && move != move(data)) {
+                        write(i, key, pack(move, score(data), depth(data), bound(data), currentAge));
+                    }
+                    return;
+                }
+                if (move == 0) {
+                    move = move(data);
+                }
+                write(i, key, pack(move, score, depth, bound, currentAge));
+                return;
+            }
+
+            int staleness = (currentAge - age(data)) & AGE_MASK;
+            int worth = depth(data) - 8 * staleness;
+            if (worth < replaceWorth) {
+                replaceWorth = worth;
+                replace = i;
+            }
+        }
+
+        if (table[replace + 1] != MISS) {
+            overwrites.increment();
+        }
+        write(replace, key, pack(move, score, depth, bound, currentAge));
+    }
+
+    /**
+     * Marks the start of a new search, so that entries from earlier searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        age = 0;
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+        overwrites.reset();
+    }
+
+    public int getCapacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Permille of the first thousand entries used by the current search, as reported by UCI engines.
+     */
+    public int getHashFull() {
+        int sampled = Math.min(1000, getCapacity());
+        int used = 0;
+        for (int entry = 0; entry < sampled; entry++) {
+            long data = table[entry * LONGS_PER_ENTRY + 1];
+            if (data != MISS && age(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sampled;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Probes that missed although their bucket was full of other positions.
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Stores that evicted an entry for a different position.
+     */
+    public long getOverwrites() {
+        return overwrites.sum();
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & MAX_DEPTH);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    static int age(long data) {
+        return (int) ((data >>> 42) & AGE_MASK);
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(Math.max(depth, 0), MAX_DEPTH) << 32)
+                | ((long) bound << 40)
+                | ((long) age << 42);
+    }
+
+    private void write(int index, long key, long data) {
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    private int bucketStart(long key) {
+        return ((int) key & bucketMask) * BUCKET_LONGS;
+    }
+}
@@ -0,0 +1,84 @@
+package training.chessington.events;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Moves;
+
+/**
+ * One move made or taken back in a game, as read from a {@link MoveEventStream}. A subscription fills
+ * the same instance for every event it hands out, so it is only valid during the handler call; copy
+ * out whatever is needed later.
+ */
+public final class MoveEvent {
+    public enum Type {
+        MOVE, TAKEBACK
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private long sequence;
+    private Type type;
+    private int move;
+    private int ply;
+    private long positionKey;
+    private long changedSquares;
+
+    MoveEvent() {
+    }
+
+    void set(long sequence, long packed, long positionKey, long changedSquares) {
+        this.sequence = sequence;
+        this.type = TYPES[(int) (packed >>> 16) & 1];
+        this.move = (int) (packed & 0xFFFF);
+        this.ply = (int) (packed >>> 32);
+        this.positionKey = positionKey;
+        this.changedSquares = changedSquares;
+    }
+
+    static long pack(Type type, int move, int ply) {
+        return (move & 0xFFFFL) | ((long) type.ordinal() << 16) | ((long) ply << 32);
+    }
+
+    /**
+     * The position of this event in its game's stream, counting from 0.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The move made, or the one taken back, packed as in {@link Moves}.
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * The number of moves played in the game once this event has happened.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * The Zobrist key of the position the event leaves the game in.
+     */
+    public long getPositionKey() {
+        return positionKey;
+    }
+
+    /**
+     * The squares whose contents the event changed, as a bitboard (see {@link Bitboards}).
+     */
+    public long getChangedSquares() {
+        return changedSquares;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s at ply %d", sequence, type, Moves.toUci(move), ply);
+    }
+}
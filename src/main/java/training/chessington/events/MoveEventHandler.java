@@ -0,0 +1,5 @@
+package training.chessington.events;
+
+public interface MoveEventHandler {
+    void onEvent(MoveEvent event);
+}
@@ -0,0 +1,159 @@
+package training.chessington.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A ring buffer of the moves of one game, written by the single thread that plays the game and read by
+ * any number of {@link Subscription}s. Publishing never waits for readers: once a subscription falls a
+ * whole buffer behind, the events it has not read are overwritten and counted as missed, so a slow
+ * subscriber loses events rather than slowing the game down.
+ *
+ * <p>Events are stored as primitives in preallocated slots, so publishing allocates nothing. Each
+ * slot is stamped with its sequence number, which is cleared while the slot is rewritten; a reader
+ * checks the stamp before and after reading a slot and so never sees an event that was overwritten
+ * under it.</p>
+ */
+public final class MoveEventStream {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int FIELDS = 4;
+    private static final int STAMP = 0;
+    private static final int PACKED = 1;
+    private static final int POSITION_KEY = 2;
+    private static final int CHANGED_SQUARES = 3;
+    private static final long NO_STAMP = -1;
+
+    private final AtomicLongArray slots;
+    private final int capacity;
+    private final int mask;
+    // The sequence number of the next event, which is also the number published so far
+    private final AtomicLong published = new AtomicLong();
+
+    public MoveEventStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveEventStream(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicLongArray(capacity * FIELDS);
+        for (int slot = 0; slot < capacity; slot++) {
+            slots.set(slot * FIELDS + STAMP, NO_STAMP);
+        }
+    }
+
+    /**
+     * Adds an event. Only the game's own thread may call this.
+     */
+    public void publish(MoveEvent.Type type, int move, int ply, long positionKey, long changedSquares) {
+        long sequence = published.get();
+        int base = (int) (sequence & mask) * FIELDS;
+        // Ordered writes: readers see the cleared stamp before any of the new fields
+        slots.lazySet(base + STAMP, NO_STAMP);
+        slots.lazySet(base + PACKED, MoveEvent.pack(type, move, ply));
+        slots.lazySet(base + POSITION_KEY, positionKey);
+        slots.lazySet(base + CHANGED_SQUARES, changedSquares);
+        slots.lazySet(base + STAMP, sequence);
+        published.lazySet(sequence + 1);
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * A subscription to the events published from now on.
+     */
+    public Subscription subscribe() {
+        return new Subscription(published.get());
+    }
+
+    /**
+     * One reader's position in the stream. A subscription must only be drained by one thread at a time.
+     */
+    public final class Subscription {
+        private final MoveEvent event = new MoveEvent();
+        private long next;
+        private long missed;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Hands every event published since the last drain to {@code handler} and returns how many there
+         * were.
+         */
+        public int drain(MoveEventHandler handler) {
+            return drain(handler, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Hands at most {@code maxEvents} events to {@code handler}, oldest first, and returns how many
+         * there were. Events overwritten before they could be read are skipped and added to
+         * {@link #getMissed()}.
+         */
+        public int drain(MoveEventHandler handler, int maxEvents) {
+            long available = published.get();
+            skipOverwritten(available);
+            long end = Math.min(available, next + maxEvents);
+            int drained = 0;
+            while (next < end) {
+                if (!read(next)) {
+                    // The producer lapped us mid-read and may be rewriting the oldest slot already
+                    skipOverwritten(published.get() + 1);
+                    continue;
+                }
+                next++;
+                drained++;
+                handler.onEvent(event);
+            }
+            return drained;
+        }
+
+        /**
+         * The number of published events this subscription has not read yet.
+         */
+        public long getLag() {
+            return published.get() - next;
+        }
+
+        /**
+         * The number of events overwritten before this subscription read them.
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        private void skipOverwritten(long latest) {
+            long oldest = latest - capacity;
+            if (next < oldest) {
+                missed += oldest - next;
+                next = oldest;
+            }
+        }
+
+        private boolean read(long sequence) {
+            int base = (int) (sequence & mask) * FIELDS;
+            if (slots.get(base + STAMP) != sequence) {
+                return false;
+            }
+            long packed = slots.get(base + PACKED);
+            long positionKey = slots.get(base + POSITION_KEY);
+            long changedSquares = slots.get(base + CHANGED_SQUARES);
+            if (slots.get(base + STAMP) != sequence) {
+                return false;
+            }
+            event.set(sequence, packed, positionKey, changedSquares);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package training.chessington.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that many threads add to without contending.
+ */
+public final class Counter extends Metric {
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        super(name, "");
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    @Override
+    MetricsSnapshot.Entry snapshot() {
+        long sum = count.sum();
+        return new MetricsSnapshot.Entry(getName(), sum, sum, 0, getUnit());
+    }
+
+    @Override
+    void reset() {
+        count.reset();
+    }
+}
@@ -0,0 +1,35 @@
+package training.chessington.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The number, total and largest of a series of recorded values, such as bytes allocated per move.
+ */
+public class Distribution extends Metric {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Distribution(String name, String unit) {
+        super(name, unit);
+    }
+
+    public void record(long value) {
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    @Override
+    MetricsSnapshot.Entry snapshot() {
+        return new MetricsSnapshot.Entry(getName(), count.sum(), total.sum(), max.get(), getUnit());
+    }
+
+    @Override
+    void reset() {
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,16 @@
+package training.chessington.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes each snapshot to the log at info level.
+ */
+public class LoggingReporter implements MetricsReporter {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        LOGGER.info("Metrics:\n{}", snapshot);
+    }
+}
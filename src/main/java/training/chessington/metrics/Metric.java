@@ -0,0 +1,23 @@
+package training.chessington.metrics;
+
+abstract class Metric {
+    private final String name;
+    private final String unit;
+
+    Metric(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getUnit() {
+        return unit;
+    }
+
+    abstract MetricsSnapshot.Entry snapshot();
+
+    abstract void reset();
+}
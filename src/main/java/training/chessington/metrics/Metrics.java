@@ -0,0 +1,152 @@
+package training.chessington.metrics;
+
+import training.chessington.model.pieces.Piece;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and timers for the hot paths of the model and the engine. They are off unless the JVM is
+ * started with {@code -Dchessington.metrics=true}. Every update is guarded by {@link #ENABLED}, which
+ * is a static final constant, so when it is false the JIT removes the guarded code and the
+ * instrumentation costs nothing. When enabled, updates go to {@link java.util.concurrent.atomic.LongAdder}s, which
+ * do not contend between threads, and the metrics are registered with JMX under {@link #OBJECT_NAME}.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("chessington.metrics");
+    public static final String OBJECT_NAME = "training.chessington:type=Metrics";
+
+    private static final List<Metric> ALL = new ArrayList<>();
+
+    public static final Timer MAKE_MOVE = register(new Timer("game.makeMove"));
+    public static final Distribution MAKE_MOVE_ALLOCATION = register(new Distribution("game.makeMove.allocated", "bytes"));
+    public static final Timer GAME_ALLOWED_MOVES = register(new Timer("game.getAllowedMoves"));
+    private static final Timer[] PIECE_ALLOWED_MOVES = new Timer[Piece.PieceType.values().length];
+    public static final Timer SEARCH = register(new Timer("search"));
+    public static final Counter SEARCH_NODES = register(new Counter("search.nodes"));
+    public static final Counter TABLE_PROBES = register(new Counter("search.table.probes"));
+    public static final Counter TABLE_HITS = register(new Counter("search.table.hits"));
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION_SUPPORTED = THREADS instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported();
+
+    static {
+        for (Piece.PieceType type : Piece.PieceType.values()) {
+            PIECE_ALLOWED_MOVES[type.ordinal()] = register(new Timer("piece." + type.name().toLowerCase() + ".getAllowedMoves"));
+        }
+        if (ENABLED) {
+            registerMBean();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static Timer pieceAllowedMoves(Piece.PieceType type) {
+        return PIECE_ALLOWED_MOVES[type.ordinal()];
+    }
+
+    /**
+     * The bytes allocated so far by the current thread, or -1 where the JVM cannot tell.
+     */
+    public static long allocatedBytes() {
+        return ALLOCATION_SUPPORTED ? ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public static MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.Entry> entries = new ArrayList<>(ALL.size());
+        for (Metric metric : ALL) {
+            entries.add(metric.snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), entries);
+    }
+
+    public static void reset() {
+        for (Metric metric : ALL) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * Passes a snapshot to {@code reporter} every {@code period} on a daemon thread until the returned
+     * service is shut down.
+     */
+    public static ScheduledExecutorService startReporting(MetricsReporter reporter, long period, TimeUnit unit) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> reporter.report(snapshot()), period, period, unit);
+        return scheduler;
+    }
+
+    private static <T extends Metric> T register(T metric) {
+        ALL.add(metric);
+        return metric;
+    }
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics with JMX", e);
+        }
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounts() {
+            return collect(MetricsSnapshot.Entry::getCount);
+        }
+
+        @Override
+        public Map<String, Long> getTotals() {
+            return collect(MetricsSnapshot.Entry::getTotal);
+        }
+
+        @Override
+        public Map<String, Double> getMeans() {
+            return collect(MetricsSnapshot.Entry::getMean);
+        }
+
+        @Override
+        public Map<String, Long> getMaximums() {
+            return collect(MetricsSnapshot.Entry::getMax);
+        }
+
+        @Override
+        public double getNodesPerSecond() {
+            return snapshot().getNodesPerSecond();
+        }
+
+        @Override
+        public double getTableHitRate() {
+            return snapshot().getTableHitRate();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        private static <V> Map<String, V> collect(Function<MetricsSnapshot.Entry, V> value) {
+            Map<String, V> values = new HashMap<>();
+            for (MetricsSnapshot.Entry entry : snapshot().getEntries().values()) {
+                values.put(entry.getName(), value.apply(entry));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package training.chessington.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics as seen over JMX, under {@link Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getTotals();
+
+    Map<String, Double> getMeans();
+
+    Map<String, Long> getMaximums();
+
+    double getNodesPerSecond();
+
+    double getTableHitRate();
+
+    void reset();
+}
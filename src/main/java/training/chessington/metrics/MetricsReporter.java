@@ -0,0 +1,8 @@
+package training.chessington.metrics;
+
+/**
+ * Receives snapshots at a fixed rate once passed to {@link Metrics#startReporting}.
+ */
+public interface MetricsReporter {
+    void report(MetricsSnapshot snapshot);
+}
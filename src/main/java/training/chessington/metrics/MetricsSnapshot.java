@@ -0,0 +1,114 @@
+package training.chessington.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The value of every metric at one moment, with the rates derived from them.
+ */
+public final class MetricsSnapshot {
+    private final long timeMillis;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    MetricsSnapshot(long timeMillis, List<Entry> entries) {
+        this.timeMillis = timeMillis;
+        for (Entry entry : entries) {
+            this.entries.put(entry.getName(), entry);
+        }
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Map<String, Entry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    public Entry get(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No metric named " + name);
+        }
+        return entry;
+    }
+
+    /**
+     * Search nodes per second of search time, summed over all threads.
+     */
+    public double getNodesPerSecond() {
+        long nanos = get(Metrics.SEARCH.getName()).getTotal();
+        return nanos == 0 ? 0 : get(Metrics.SEARCH_NODES.getName()).getCount() * 1e9 / nanos;
+    }
+
+    /**
+     * The fraction of transposition table probes by searches that found their position.
+     */
+    public double getTableHitRate() {
+        long probes = get(Metrics.TABLE_PROBES.getName()).getCount();
+        return probes == 0 ? 0 : (double) get(Metrics.TABLE_HITS.getName()).getCount() / probes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : entries.values()) {
+            text.append(entry).append('\n');
+        }
+        return text.append(String.format("search: %,.0f nodes/s, table hit rate %.1f%%",
+                getNodesPerSecond(), getTableHitRate() * 100)).toString();
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final long count;
+        private final long total;
+        private final long max;
+        private final String unit;
+
+        Entry(String name, long count, long total, long max, String unit) {
+            this.name = name;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+            this.unit = unit;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The sum of the recorded values, or the count for a {@link Counter}.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        @Override
+        public String toString() {
+            if (unit.isEmpty()) {
+                return String.format("%s: %,d", name, count);
+            }
+            return String.format("%s: %,d, mean %,.0f %s, max %,d %s", name, count, getMean(), unit, max, unit);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package training.chessington.metrics;
+
+/**
+ * Durations in nanoseconds. Callers take {@link System#nanoTime} before the timed work and pass it to
+ * {@link #recordSince}, both behind a check of {@link Metrics#ENABLED}.
+ */
+public final class Timer extends Distribution {
+    Timer(String name) {
+        super(name, "ns");
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,278 @@
+package training.chessington.model;
+
+/**
+ * Precomputed attack sets. Knight, king and pawn attacks are plain per-square tables; rook and bishop
+ * attacks use magic bitboards. The magics below are the output of the seeded search in
+ * {@link SlidingTable}, cached so that start-up only has to fill the tables; if one ever fails to
+ * verify the search is rerun for that square, which gives the same tables on every run.
+ */
+public final class AttackTables {
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] ORTHOGONALS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] DIAGONALS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // Per-row seeds for the magic search, picked so that every row finds its magics in few attempts
+    private static final long[] MAGIC_SEEDS = {1776, 826, 1738, 981, 1746, 1749, 974, 30};
+
+    private static final long[] ROOK_MAGICS = {
+            0x0A80008010400020L, 0x40C0004020001008L, 0x2080100020000880L, 0x0900100088210004L,
+            0x08802C0048008002L, 0x0800844010020820L, 0x2080808002000100L, 0x4200040048802201L,
+            0x0018800028400480L, 0x2121002081004002L, 0x0041805000200082L, 0x9085002100100008L,
+            0x6841000501100800L, 0x0860800200800401L, 0x0100808002000100L, 0x0202001041008204L,
+            0x0040008000402084L, 0x1010210040010884L, 0x0204410010200106L, 0x0050008014080080L,
+            0x4000050010880100L, 0x4012008004008002L, 0xA000840002080110L, 0x12042200008419C3L,
+            0x0040400080208000L, 0x0020850600214200L, 0x0830401100200500L, 0x0000220200401008L,
+            0x0028080180040080L, 0x0800020080800400L, 0x3908902400020958L, 0x000A801880004100L,
+            0x1000204018800080L, 0x0010002004400040L, 0x1000108022004200L, 0x2010010021001408L,
+            0x0004000800800480L, 0x0001001803000C00L, 0x6001002421000200L, 0x2000800040800100L,
+            0x40C0014080018020L, 0x2000201000404000L, 0x0C00200104110040L, 0x041904201001000AL,
+            0x4000040008008080L, 0x0000100440080120L, 0x2060020001008080L, 0xC000440080520001L,
+            0x0941008042002A00L, 0x2000834008200880L, 0x0000108040220200L, 0x0000100080080080L,
+            0x8000802041001002L, 0x0202001008142600L, 0x0901000E00040500L, 0x00010008B2004100L,
+            0x1042052100418216L, 0x0106018010E24902L, 0x1000412813006001L, 0x1000040900201001L,
+            0x0421000410020801L, 0x8802004490080102L, 0x0084183043810604L, 0x00001402810040A2L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0208308128002080L, 0x0810042080820080L, 0xCC4202120420D800L, 0x01D1040081120001L,
+            0x4064042000600040L, 0x020101209124C008L, 0x01040A211029C000L, 0x0000120101084000L,
+            0x8008A12001020080L, 0x0000A04101110100L, 0x808018320401A108L, 0x019004050210021CL,
+            0x0C64220210000040L, 0x8004008804400001L, 0x4041020804030800L, 0x200500420201A002L,
+            0x0040020684080220L, 0x7010006002421064L, 0x0921080212040100L, 0x000222280A004000L,
+            0x0211000290400080L, 0x0000200A10100804L, 0x0000800402180300L, 0x0001080041009008L,
+            0x8408400020020200L, 0x0001244820480208L, 0x2004020010049010L, 0x64020800140104A0L,
+            0x9112001002005000L, 0x200041000280A000L, 0x2004044201111000L, 0x0002102040888800L,
+            0x008208A20C442000L, 0x0810823040A00480L, 0x0820402080100100L, 0x48021008205C0400L,
+            0x0020021010040040L, 0x2010020200002084L, 0x0001310402260212L, 0x0288044040010124L,
+            0x0C12100420000404L, 0x0001043920040400L, 0x000240A409001010L, 0x424000401040B200L,
+            0x2088202008801108L, 0x2002100A02000024L, 0x1109220410401400L, 0x009000A210410882L,
+            0x0900880110100002L, 0x10A1008210A20000L, 0x2020210080900206L, 0x000030020A020441L,
+            0x0000101042021100L, 0x0080450438020041L, 0x1004480848108402L, 0x000210090D010480L,
+            0x000A0A0104110440L, 0x0010004048041050L, 0x0003008488680800L, 0x0821010002104400L,
+            0x0800023004504401L, 0x0860812004101088L, 0x0B00441104011400L, 0x0006101009818189L
+    };
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final SlidingTable ROOK = new SlidingTable(ORTHOGONALS, ROOK_MAGICS);
+    private static final SlidingTable BISHOP = new SlidingTable(DIAGONALS, BISHOP_MAGICS);
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = stepAttacks(square, KNIGHT_STEPS);
+            KING[square] = stepAttacks(square, KING_STEPS);
+            PAWN[PlayerColour.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+            PAWN[PlayerColour.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{1, -1}, {1, 1}});
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long ends = (1L << a) | (1L << b);
+                if ((ROOK.attacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = ROOK.attacks(a, 1L << b) & ROOK.attacks(b, 1L << a);
+                    LINE[a][b] = (ROOK.attacks(a, 0) & ROOK.attacks(b, 0)) | ends;
+                } else if ((BISHOP.attacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = BISHOP.attacks(a, 1L << b) & BISHOP.attacks(b, 1L << a);
+                    LINE[a][b] = (BISHOP.attacks(a, 0) & BISHOP.attacks(b, 0)) | ends;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * The squares a pawn of the given colour standing on {@code square} attacks.
+     */
+    public static long pawnAttacks(PlayerColour colour, int square) {
+        return PAWN[colour.ordinal()][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK.attacks(square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP.attacks(square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return ROOK.attacks(square, occupied) | BISHOP.attacks(square, occupied);
+    }
+
+    /**
+     * The squares strictly between two squares on a shared rank, file or diagonal, or none if they
+     * do not share one.
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * The whole rank, file or diagonal through two squares, or none if they do not share one.
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    static long slowRookAttacks(int square, long occupied) {
+        return SlidingTable.rayAttacks(square, occupied, ORTHOGONALS);
+    }
+
+    static long slowBishopAttacks(int square, long occupied) {
+        return SlidingTable.rayAttacks(square, occupied, DIAGONALS);
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = Bitboards.row(square) + step[0];
+            int col = Bitboards.col(square) + step[1];
+            if (Bitboards.isOnBoard(row, col)) {
+                attacks |= Bitboards.bit(Bitboards.square(row, col));
+            }
+        }
+        return attacks;
+    }
+
+    private static final class SlidingTable {
+        private final long[] masks = new long[64];
+        private final long[] magics = new long[64];
+        private final int[] shifts = new int[64];
+        private final int[] offsets = new int[64];
+        private final long[] attacks;
+        private long randomState;
+
+        SlidingTable(int[][] directions, long[] knownMagics) {
+            int size = 0;
+            for (int square = 0; square < 64; square++) {
+                masks[square] = relevantOccupancy(square, directions);
+                shifts[square] = 64 - Long.bitCount(masks[square]);
+                offsets[square] = size;
+                size += 1 << Long.bitCount(masks[square]);
+            }
+            attacks = new long[size];
+
+            for (int square = 0; square < 64; square++) {
+                if (Bitboards.col(square) == 0) {
+                    randomState = MAGIC_SEEDS[Bitboards.row(square)];
+                }
+                magics[square] = findMagic(square, directions, knownMagics[square]);
+            }
+        }
+
+        long attacks(int square, long occupied) {
+            int index = (int) (((occupied & masks[square]) * magics[square]) >>> shifts[square]);
+            return attacks[offsets[square] + index];
+        }
+
+        private long findMagic(int square, int[][] directions, long knownMagic) {
+            long mask = masks[square];
+            int size = 1 << Long.bitCount(mask);
+            long[] occupancies = new long[size];
+            long[] expected = new long[size];
+            int i = 0;
+            long subset = 0;
+            do {
+                occupancies[i] = subset;
+                expected[i] = rayAttacks(square, subset, directions);
+                i++;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+
+            int[] filledBy = new int[size];
+            int attempt = 1;
+            if (tryMagic(square, knownMagic, occupancies, expected, filledBy, attempt)) {
+                return knownMagic;
+            }
+            while (true) {
+                long candidate = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * candidate) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+
+                attempt++;
+                if (tryMagic(square, candidate, occupancies, expected, filledBy, attempt)) {
+                    return candidate;
+                }
+            }
+        }
+
+        private boolean tryMagic(int square, long magic, long[] occupancies, long[] expected, int[] filledBy, int attempt) {
+            int offset = offsets[square];
+            for (int i = 0; i < occupancies.length; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shifts[square]);
+                if (filledBy[index] != attempt) {
+                    filledBy[index] = attempt;
+                    attacks[offset + index] = expected[i];
+                } else if (attacks[offset + index] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long rayAttacks(int square, long occupied, int[][] directions) {
+            long attacks = 0;
+            int row = Bitboards.row(square);
+            int col = Bitboards.col(square);
+            for (int[] direction : directions) {
+                int step = direction[0] * 8 + direction[1];
+                int length = Math.min(rayLength(row, direction[0]), rayLength(col, direction[1]));
+                for (int i = 1, to = square + step; i <= length; i++, to += step) {
+                    long bit = 1L << to;
+                    attacks |= bit;
+                    if ((occupied & bit) != 0) {
+                        break;
+                    }
+                }
+            }
+            return attacks;
+        }
+
+        private static int rayLength(int from, int direction) {
+            return direction < 0 ? from : direction > 0 ? 7 - from : 7;
+        }
+
+        /**
+         * Squares whose occupancy can change the attacks from {@code square}: each ray without its last square.
+         */
+        private static long relevantOccupancy(int square, int[][] directions) {
+            long mask = 0;
+            for (int[] direction : directions) {
+                int row = Bitboards.row(square) + direction[0];
+                int col = Bitboards.col(square) + direction[1];
+                while (Bitboards.isOnBoard(row + direction[0], col + direction[1])) {
+                    mask |= Bitboards.bit(Bitboards.square(row, col));
+                    row += direction[0];
+                    col += direction[1];
+                }
+            }
+            return mask;
+        }
+
+        private long nextRandom() {
+            randomState ^= randomState >>> 12;
+            randomState ^= randomState << 25;
+            randomState ^= randomState >>> 27;
+            return randomState * 0x2545F4914F6CDD1DL;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package training.chessington.model;
+
+/**
+ * Helpers for 64-bit square sets. Square indices run row-major from the top-left of the board,
+ * so square 0 is row 0, column 0 (black's queen-side rook) and square 63 is row 7, column 7.
+ */
+public final class Bitboards {
+    public static final long EMPTY = 0L;
+    public static final long ALL = ~0L;
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int col) {
+        return (row << 3) | col;
+    }
+
+    public static int square(Coordinates coords) {
+        return square(coords.getRow(), coords.getCol());
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static boolean isOnBoard(int row, int col) {
+        return ((row | col) & ~7) == 0;
+    }
+
+    public static Coordinates coordinates(int square) {
+        return Coordinates.of(row(square), col(square));
+    }
+
+    public static String name(int square) {
+        return "" + (char) ('a' + col(square)) + (char) ('8' - row(square));
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & (1L << square)) != 0;
+    }
+
+    public static int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static long withoutFirst(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+}
@@ -2,9 +2,37 @@ package training.chessington.model;
 
 import training.chessington.model.pieces.*;
 
+import java.util.Arrays;
+
 public class Board {
 
-    private Piece[][] board = new Piece[8][8];
+    public static final int NO_SQUARE = -1;
+
+    private static final int PIECE_KINDS = 6;
+    private static final int INITIAL_UNDO_CAPACITY = 256;
+
+    private final Piece[] squares = new Piece[64];
+    private final long[] pieces = new long[2 * PIECE_KINDS];
+    private final long[] colours = new long[2];
+    private long occupied;
+
+    private PlayerColour sideToMove = PlayerColour.WHITE;
+    private int castlingRights = CastlingRights.NONE;
+    private int enPassantSquare = NO_SQUARE;
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    private long zobristKey = 0;
+
+    // Kept up to date by put and remove, so that evaluating a position never scans the board
+    private int midgameScore = 0;
+    private int endgameScore = 0;
+    private int phase = 0;
+
+    // One entry per made move: the move, castling rights, en-passant square and halfmove clock before it
+    private long[] undoStack = new long[INITIAL_UNDO_CAPACITY];
+    private Piece[] capturedStack = new Piece[INITIAL_UNDO_CAPACITY];
+    private long[] keyStack = new long[INITIAL_UNDO_CAPACITY];
+    private int undoCount = 0;
 
     private Board() {
     }
@@ -15,9 +43,10 @@ public class Board {
         board.setBackRow(7, PlayerColour.WHITE);
 
         for (int col = 0; col < 8; col++) {
-            board.board[1][col] = new Pawn(PlayerColour.BLACK);
-            board.board[6][col] = new Pawn(PlayerColour.WHITE);
+            board.put(Bitboards.square(1, col), Pieces.of(Piece.PieceType.PAWN, PlayerColour.BLACK));
+            board.put(Bitboards.square(6, col), Pieces.of(Piece.PieceType.PAWN, PlayerColour.WHITE));
         }
+        board.setCastlingRights(CastlingRights.ALL);
 
         return board;
     }
@@ -26,27 +55,356 @@ public class Board {
         return new Board();
     }
 
+    public static Board fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Empties the board and resets it to white to move with no castling rights and no move history, so
+     * that it can be reused for another position.
+     */
+    public void clear() {
+        Arrays.fill(squares, null);
+        Arrays.fill(pieces, 0);
+        Arrays.fill(colours, 0);
+        Arrays.fill(capturedStack, 0, undoCount, null);
+        occupied = 0;
+        sideToMove = PlayerColour.WHITE;
+        castlingRights = CastlingRights.NONE;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        zobristKey = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        undoCount = 0;
+    }
+
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    public Board copy() {
+        Board copy = new Board();
+        System.arraycopy(squares, 0, copy.squares, 0, squares.length);
+        System.arraycopy(pieces, 0, copy.pieces, 0, pieces.length);
+        System.arraycopy(colours, 0, copy.colours, 0, colours.length);
+        copy.occupied = occupied;
+        copy.sideToMove = sideToMove;
+        copy.castlingRights = castlingRights;
+        copy.enPassantSquare = enPassantSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.zobristKey = zobristKey;
+        copy.midgameScore = midgameScore;
+        copy.endgameScore = endgameScore;
+        copy.phase = phase;
+        copy.undoStack = Arrays.copyOf(undoStack, undoStack.length);
+        copy.capturedStack = Arrays.copyOf(capturedStack, capturedStack.length);
+        copy.keyStack = Arrays.copyOf(keyStack, keyStack.length);
+        copy.undoCount = undoCount;
+        return copy;
+    }
+
     private void setBackRow(int rowIndex, PlayerColour colour) {
-        board[rowIndex][0] = new Rook(colour);
-        board[rowIndex][1] = new Knight(colour);
-        board[rowIndex][2] = new Bishop(colour);
-        board[rowIndex][3] = new Queen(colour);
-        board[rowIndex][4] = new King(colour);
-        board[rowIndex][5] = new Bishop(colour);
-        board[rowIndex][6] = new Knight(colour);
-        board[rowIndex][7] = new Rook(colour);
+        put(Bitboards.square(rowIndex, 0), Pieces.of(Piece.PieceType.ROOK, colour));
+        put(Bitboards.square(rowIndex, 1), Pieces.of(Piece.PieceType.KNIGHT, colour));
+        put(Bitboards.square(rowIndex, 2), Pieces.of(Piece.PieceType.BISHOP, colour));
+        put(Bitboards.square(rowIndex, 3), Pieces.of(Piece.PieceType.QUEEN, colour));
+        put(Bitboards.square(rowIndex, 4), Pieces.of(Piece.PieceType.KING, colour));
+        put(Bitboards.square(rowIndex, 5), Pieces.of(Piece.PieceType.BISHOP, colour));
+        put(Bitboards.square(rowIndex, 6), Pieces.of(Piece.PieceType.KNIGHT, colour));
+        put(Bitboards.square(rowIndex, 7), Pieces.of(Piece.PieceType.ROOK, colour));
     }
 
     public Piece get(Coordinates coords) {
-        return board[coords.getRow()][coords.getCol()];
+        return squares[Bitboards.square(coords)];
+    }
+
+    public Piece get(int square) {
+        return squares[square];
     }
 
     public void move(Coordinates from, Coordinates to) {
-        board[to.getRow()][to.getCol()] = board[from.getRow()][from.getCol()];
-        board[from.getRow()][from.getCol()] = null;
+        move(Bitboards.square(from), Bitboards.square(to));
+    }
+
+    public void move(int from, int to) {
+        Piece piece = remove(from);
+        remove(to);
+        if (piece != null) {
+            put(to, piece);
+        }
     }
 
     public void placePiece(Coordinates coords, Piece piece) {
-        board[coords.getRow()][coords.getCol()] = piece;
+        placePiece(Bitboards.square(coords), piece);
+    }
+
+    public void placePiece(int square, Piece piece) {
+        remove(square);
+        if (piece != null) {
+            put(square, piece);
+        }
+    }
+
+    public long getPieces(PlayerColour colour, Piece.PieceType type) {
+        return pieces[index(colour, type)];
+    }
+
+    public long getPieces(PlayerColour colour) {
+        return colours[colour.ordinal()];
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getEmpty() {
+        return ~occupied;
+    }
+
+    public PlayerColour getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(PlayerColour sideToMove) {
+        zobristKey ^= Zobrist.sideToMove(this.sideToMove) ^ Zobrist.sideToMove(sideToMove);
+        this.sideToMove = sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        zobristKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        zobristKey ^= Zobrist.enPassant(this.enPassantSquare) ^ Zobrist.enPassant(enPassantSquare);
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Material and piece placement from white's point of view, tapered between middlegame and
+     * endgame values by the material left (see {@link PieceSquareTables}).
+     */
+    public int getEvaluation() {
+        return PieceSquareTables.taper(midgameScore, endgameScore, phase);
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Whether the current position, with the same side to move and the same castling and en passant
+     * rights, occurred before. Only positions since the last capture or pawn move can match, and only
+     * every other one of those, so the check stops at the halfmove clock; it is cheap enough for every
+     * search node.
+     */
+    public boolean isRepetition() {
+        return countRepetitions(1) >= 1;
+    }
+
+    /**
+     * Whether the current position occurred at least twice before, which draws the game.
+     */
+    public boolean isThreefoldRepetition() {
+        return countRepetitions(2) >= 2;
+    }
+
+    private int countRepetitions(int enough) {
+        int count = 0;
+        int oldest = Math.max(0, undoCount - halfmoveClock);
+        // Each side needs at least two moves to get back to a position
+        for (int ply = undoCount - 4; ply >= oldest; ply -= 2) {
+            if (keyStack[ply] == zobristKey && ++count >= enough) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    public int getLastMove() {
+        return undoCount == 0 ? Moves.NONE : (int) (undoStack[undoCount - 1] & 0xFFFF);
+    }
+
+    /**
+     * The move made at {@code ply} of the history that {@link #unmakeMove} can take back, counting from 0.
+     */
+    public int getMove(int ply) {
+        if (ply < 0 || ply >= undoCount) {
+            throw new IndexOutOfBoundsException("No move at ply " + ply + " of " + undoCount);
+        }
+        return (int) (undoStack[ply] & 0xFFFF);
+    }
+
+    public boolean isInCheck(PlayerColour colour) {
+        long king = getPieces(colour, Piece.PieceType.KING);
+        return king != 0 && isAttacked(Bitboards.first(king), colour.opponent());
+    }
+
+    public boolean isAttacked(int square, PlayerColour by) {
+        return attackersOf(square, by) != 0;
+    }
+
+    public long attackersOf(int square, PlayerColour by) {
+        return attackersOf(square, by, occupied);
+    }
+
+    /**
+     * The pieces of colour {@code by} attacking {@code square} if the board's occupancy were
+     * {@code occupied}, for asking whether a square would be safe once pieces have moved off it.
+     */
+    public long attackersOf(int square, PlayerColour by, long occupied) {
+        long queens = getPieces(by, Piece.PieceType.QUEEN);
+        return (AttackTables.pawnAttacks(by.opponent(), square) & getPieces(by, Piece.PieceType.PAWN))
+                | (AttackTables.knightAttacks(square) & getPieces(by, Piece.PieceType.KNIGHT))
+                | (AttackTables.kingAttacks(square) & getPieces(by, Piece.PieceType.KING))
+                | (AttackTables.rookAttacks(square, occupied) & (getPieces(by, Piece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(square, occupied) & (getPieces(by, Piece.PieceType.BISHOP) | queens));
+    }
+
+    public void makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        PlayerColour us = sideToMove;
+
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+            capturedStack = Arrays.copyOf(capturedStack, undoCount * 2);
+            keyStack = Arrays.copyOf(keyStack, undoCount * 2);
+        }
+        keyStack[undoCount] = zobristKey;
+        undoStack[undoCount] = (move & 0xFFFFL)
+                | ((long) castlingRights << 16)
+                | ((long) (enPassantSquare + 1) << 20)
+                | ((long) halfmoveClock << 32);
+
+        Piece piece = remove(from);
+        Piece captured = remove(capturedSquare(to, flags, us));
+        capturedStack[undoCount++] = captured;
+        put(to, Moves.isPromotion(move) ? Pieces.of(Moves.promotionType(move), us) : piece);
+
+        if (flags == Moves.KING_CASTLE) {
+            put(to - 1, remove(to + 1));
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            put(to + 1, remove(to - 2));
+        }
+
+        halfmoveClock = captured != null || piece.getType() == Piece.PieceType.PAWN ? 0 : halfmoveClock + 1;
+        if (us == PlayerColour.BLACK) {
+            fullmoveNumber++;
+        }
+        setCastlingRights(CastlingRights.afterMove(castlingRights, from, to));
+        setEnPassantSquare(flags == Moves.DOUBLE_PAWN_PUSH ? enPassantTarget((from + to) >>> 1, us.opponent()) : NO_SQUARE);
+        setSideToMove(us.opponent());
+    }
+
+    // Only record an en-passant square that can really be captured on, so that transpositions hash alike
+    int enPassantTarget(int square, PlayerColour capturer) {
+        boolean capturable = (AttackTables.pawnAttacks(capturer.opponent(), square) & getPieces(capturer, Piece.PieceType.PAWN)) != 0;
+        return capturable ? square : NO_SQUARE;
+    }
+
+    public void unmakeMove() {
+        long undo = undoStack[--undoCount];
+        Piece captured = capturedStack[undoCount];
+        capturedStack[undoCount] = null;
+
+        int move = (int) (undo & 0xFFFF);
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        PlayerColour us = sideToMove.opponent();
+
+        if (flags == Moves.KING_CASTLE) {
+            put(to + 1, remove(to - 1));
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            put(to - 2, remove(to + 1));
+        }
+
+        Piece piece = remove(to);
+        put(from, Moves.isPromotion(move) ? Pieces.of(Piece.PieceType.PAWN, us) : piece);
+        if (captured != null) {
+            put(capturedSquare(to, flags, us), captured);
+        }
+
+        sideToMove = us;
+        if (us == PlayerColour.BLACK) {
+            fullmoveNumber--;
+        }
+        castlingRights = (int) (undo >>> 16) & 0xF;
+        enPassantSquare = ((int) (undo >>> 20) & 0x7F) - 1;
+        halfmoveClock = (int) (undo >>> 32);
+        zobristKey = keyStack[undoCount];
+    }
+
+    private static int capturedSquare(int to, int flags, PlayerColour us) {
+        if (flags != Moves.EN_PASSANT) {
+            return to;
+        }
+        return us == PlayerColour.WHITE ? to + 8 : to - 8;
+    }
+
+    private void put(int square, Piece piece) {
+        long bit = Bitboards.bit(square);
+        squares[square] = piece;
+        zobristKey ^= Zobrist.piece(piece.getColour(), piece.getType(), square);
+        midgameScore += PieceSquareTables.midgame(piece.getColour(), piece.getType(), square);
+        endgameScore += PieceSquareTables.endgame(piece.getColour(), piece.getType(), square);
+        phase += PieceSquareTables.phase(piece.getType());
+        pieces[index(piece.getColour(), piece.getType())] |= bit;
+        colours[piece.getColour().ordinal()] |= bit;
+        occupied |= bit;
+    }
+
+    private Piece remove(int square) {
+        Piece piece = squares[square];
+        if (piece != null) {
+            long bit = Bitboards.bit(square);
+            squares[square] = null;
+            zobristKey ^= Zobrist.piece(piece.getColour(), piece.getType(), square);
+            midgameScore -= PieceSquareTables.midgame(piece.getColour(), piece.getType(), square);
+            endgameScore -= PieceSquareTables.endgame(piece.getColour(), piece.getType(), square);
+            phase -= PieceSquareTables.phase(piece.getType());
+            pieces[index(piece.getColour(), piece.getType())] &= ~bit;
+            colours[piece.getColour().ordinal()] &= ~bit;
+            occupied &= ~bit;
+        }
+        return piece;
+    }
+
+    private static int index(PlayerColour colour, Piece.PieceType type) {
+        return colour.ordinal() * PIECE_KINDS + type.ordinal();
     }
 }
@@ -0,0 +1,8 @@
+package training.chessington.model;
+
+public interface BoardChangeListener {
+    /**
+     * Called after a move is made or taken back, with a bitboard of the squares whose contents changed.
+     */
+    void onSquaresChanged(long squares);
+}
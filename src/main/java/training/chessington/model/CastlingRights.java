@@ -0,0 +1,39 @@
+package training.chessington.model;
+
+public final class CastlingRights {
+    public static final int NONE = 0;
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int ALL = 15;
+
+    private static final int[] KEPT_AFTER_TOUCHING = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KEPT_AFTER_TOUCHING[square] = ALL;
+        }
+        KEPT_AFTER_TOUCHING[Bitboards.square(7, 4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        KEPT_AFTER_TOUCHING[Bitboards.square(7, 7)] &= ~WHITE_KING_SIDE;
+        KEPT_AFTER_TOUCHING[Bitboards.square(7, 0)] &= ~WHITE_QUEEN_SIDE;
+        KEPT_AFTER_TOUCHING[Bitboards.square(0, 4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        KEPT_AFTER_TOUCHING[Bitboards.square(0, 7)] &= ~BLACK_KING_SIDE;
+        KEPT_AFTER_TOUCHING[Bitboards.square(0, 0)] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    private CastlingRights() {
+    }
+
+    public static int kingSide(PlayerColour colour) {
+        return colour == PlayerColour.WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+    }
+
+    public static int queenSide(PlayerColour colour) {
+        return colour == PlayerColour.WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+    }
+
+    public static int afterMove(int rights, int from, int to) {
+        return rights & KEPT_AFTER_TOUCHING[from] & KEPT_AFTER_TOUCHING[to];
+    }
+}
@@ -3,12 +3,29 @@ package training.chessington.model;
 import java.util.Objects;
 
 public final class Coordinates {
+    private static final Coordinates[] SQUARES = new Coordinates[64];
+
+    static {
+        for (int square = 0; square < SQUARES.length; square++) {
+            SQUARES[square] = new Coordinates(square >>> 3, square & 7);
+        }
+    }
+
     private final int row;
     private final int col;
+    private final int hash;
 
     public Coordinates(int row, int col) {
         this.row = row;
         this.col = col;
+        this.hash = Objects.hash(row, col);
+    }
+
+    /**
+     * The shared coordinates of a square on the board; only coordinates off the board are created anew.
+     */
+    public static Coordinates of(int row, int col) {
+        return ((row | col) & ~7) == 0 ? SQUARES[row * 8 + col] : new Coordinates(row, col);
     }
 
     public int getRow() {
@@ -30,7 +47,7 @@ public final class Coordinates {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return hash;
     }
 
     @Override
@@ -39,6 +56,6 @@ public final class Coordinates {
     }
 
     public Coordinates plus(int rowDiff, int colDiff) {
-        return new Coordinates(row + rowDiff, col + colDiff);
+        return of(row + rowDiff, col + colDiff);
     }
 }
@@ -0,0 +1,307 @@
+package training.chessington.model;
+
+import training.chessington.model.pieces.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation. FEN lists rows from black's side, which
+ * matches the row order of {@link Coordinates}.
+ *
+ * <p>The parser walks the text once without splitting it, and can fill an existing board, so that
+ * loading many positions allocates almost nothing. The move clocks may be left out, in which case
+ * they default to 0 and 1; anything after the full-move number is ignored.</p>
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+    private static final Piece.PieceType[] TYPES = Piece.PieceType.values();
+
+    private Fen() {
+    }
+
+    public static Board parse(CharSequence fen) {
+        Board board = Board.empty();
+        parse(fen, 0, fen.length(), board);
+        return board;
+    }
+
+    /**
+     * Clears {@code board} and sets it up from {@code fen}.
+     */
+    public static void parseInto(CharSequence fen, Board board) {
+        parse(fen, 0, fen.length(), board);
+    }
+
+    /**
+     * Sets up {@code board} from the FEN line starting at the buffer's position, reading the bytes in
+     * place, and moves the position past the end of the line. This lets a caller walk a mapped file of
+     * one FEN per line without decoding it into strings.
+     */
+    public static void parseInto(ByteBuffer buffer, Board board) {
+        int start = buffer.position();
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        parse(new AsciiBytes(buffer), start, end, board);
+        buffer.position(end < buffer.limit() ? end + 1 : end);
+    }
+
+    public static int parseSquare(CharSequence square) {
+        if (square.length() != 2 || !isSquare(square, 0)) {
+            throw new IllegalArgumentException("Invalid square: " + square);
+        }
+        return squareAt(square, 0);
+    }
+
+    public static String format(Board board) {
+        return appendTo(board, new StringBuilder(90)).toString();
+    }
+
+    public static StringBuilder appendTo(Board board, StringBuilder fen) {
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.get(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(piece.getType().ordinal());
+                fen.append(piece.getColour() == PlayerColour.WHITE ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < 7) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(board.getSideToMove() == PlayerColour.WHITE ? " w " : " b ");
+        int rights = board.getCastlingRights();
+        if (rights == CastlingRights.NONE) {
+            fen.append('-');
+        } else {
+            appendIf(fen, rights, CastlingRights.WHITE_KING_SIDE, 'K');
+            appendIf(fen, rights, CastlingRights.WHITE_QUEEN_SIDE, 'Q');
+            appendIf(fen, rights, CastlingRights.BLACK_KING_SIDE, 'k');
+            appendIf(fen, rights, CastlingRights.BLACK_QUEEN_SIDE, 'q');
+        }
+        fen.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        fen.append(enPassant == Board.NO_SQUARE ? "-" : Bitboards.name(enPassant));
+        return fen.append(' ').append(board.getHalfmoveClock()).append(' ').append(board.getFullmoveNumber());
+    }
+
+    private static void appendIf(StringBuilder fen, int rights, int right, char letter) {
+        if ((rights & right) != 0) {
+            fen.append(letter);
+        }
+    }
+
+    private static void parse(CharSequence fen, int start, int end, Board board) {
+        try {
+            parseFields(fen, start, end, board);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + ": " + fen.subSequence(start, end), e);
+        }
+    }
+
+    private static void parseFields(CharSequence fen, int start, int end, Board board) {
+        board.clear();
+        int i = skipSpaces(fen, start, end);
+        i = parsePlacement(fen, i, end, board);
+
+        i = expectSpaces(fen, i, end);
+        board.setSideToMove(parseSideToMove(fen, i, end));
+        i = expectSpaces(fen, i + 1, end);
+        i = parseCastlingRights(fen, i, end, board);
+        i = expectSpaces(fen, i, end);
+
+        if (i < end && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < end && isSquare(fen, i)) {
+            int square = squareAt(fen, i);
+            board.setEnPassantSquare(board.enPassantTarget(square, board.getSideToMove()));
+            i += 2;
+        } else {
+            throw new IllegalArgumentException("Invalid en passant square");
+        }
+
+        i = skipSpaces(fen, i, end);
+        if (i < end && isDigit(fen.charAt(i))) {
+            int clockEnd = skipDigits(fen, i, end);
+            board.setHalfmoveClock(parseNumber(fen, i, clockEnd));
+            i = skipSpaces(fen, clockEnd, end);
+            if (i < end && isDigit(fen.charAt(i))) {
+                board.setFullmoveNumber(parseNumber(fen, i, skipDigits(fen, i, end)));
+            }
+        }
+    }
+
+    private static int parsePlacement(CharSequence fen, int i, int end, Board board) {
+        int row = 0;
+        int col = 0;
+        for (; i < end && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || ++row > 7) {
+                    throw new IllegalArgumentException("FEN row does not have 8 squares");
+                }
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                Piece piece = pieceFor(c);
+                if (piece == null) {
+                    throw new IllegalArgumentException("Unknown FEN piece '" + c + "'");
+                }
+                if (col > 7) {
+                    throw new IllegalArgumentException("Too many squares in FEN row");
+                }
+                board.placePiece(Bitboards.square(row, col++), piece);
+            }
+            if (col > 8) {
+                throw new IllegalArgumentException("Too many squares in FEN row");
+            }
+        }
+        if (row != 7 || col != 8) {
+            throw new IllegalArgumentException("FEN placement must have 8 rows of 8 squares");
+        }
+        return i;
+    }
+
+    private static Piece pieceFor(char c) {
+        int type = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+        if (type < 0) {
+            return null;
+        }
+        return Pieces.of(TYPES[type], Character.isUpperCase(c) ? PlayerColour.WHITE : PlayerColour.BLACK);
+    }
+
+    private static PlayerColour parseSideToMove(CharSequence fen, int i, int end) {
+        char side = i < end ? fen.charAt(i) : ' ';
+        if (i + 1 < end && fen.charAt(i + 1) != ' ') {
+            side = '?';
+        }
+        switch (side) {
+            case 'w':
+                return PlayerColour.WHITE;
+            case 'b':
+                return PlayerColour.BLACK;
+            default:
+                throw new IllegalArgumentException("Unknown side to move");
+        }
+    }
+
+    private static int parseCastlingRights(CharSequence fen, int i, int end, Board board) {
+        int rights = CastlingRights.NONE;
+        for (; i < end && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K':
+                    rights |= CastlingRights.WHITE_KING_SIDE;
+                    break;
+                case 'Q':
+                    rights |= CastlingRights.WHITE_QUEEN_SIDE;
+                    break;
+                case 'k':
+                    rights |= CastlingRights.BLACK_KING_SIDE;
+                    break;
+                case 'q':
+                    rights |= CastlingRights.BLACK_QUEEN_SIDE;
+                    break;
+                case '-':
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown castling right '" + fen.charAt(i) + "'");
+            }
+        }
+        board.setCastlingRights(rights);
+        return i;
+    }
+
+    private static boolean isSquare(CharSequence text, int i) {
+        char file = text.charAt(i);
+        char rank = text.charAt(i + 1);
+        return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+    }
+
+    private static int squareAt(CharSequence text, int i) {
+        return Bitboards.square('8' - text.charAt(i + 1), text.charAt(i) - 'a');
+    }
+
+    private static int expectSpaces(CharSequence fen, int i, int end) {
+        if (i >= end || fen.charAt(i) != ' ') {
+            throw new IllegalArgumentException("Incomplete FEN");
+        }
+        return skipSpaces(fen, i, end);
+    }
+
+    private static int skipSpaces(CharSequence fen, int i, int end) {
+        while (i < end && (fen.charAt(i) == ' ' || fen.charAt(i) == '\t' || fen.charAt(i) == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipDigits(CharSequence fen, int i, int end) {
+        while (i < end && isDigit(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (fen.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * A read-only view of a byte buffer's ASCII content, indexed like the buffer itself.
+     */
+    private static final class AsciiBytes implements CharSequence {
+        private final ByteBuffer buffer;
+
+        AsciiBytes(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder text = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                text.append(charAt(i));
+            }
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
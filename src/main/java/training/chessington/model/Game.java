@@ -1,6 +1,10 @@
 package training.chessington.model;
 
+import training.chessington.events.MoveEvent;
+import training.chessington.events.MoveEventStream;
+import training.chessington.metrics.Metrics;
 import training.chessington.model.pieces.*;
+import training.chessington.tablebase.Tablebase;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,16 +13,32 @@ public class Game {
     public static final int SIZE = 8;
     private final Board board;
 
-    private PlayerColour nextPlayer = PlayerColour.WHITE;
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private int legalMoveCount;
 
     private boolean isEnded = false;
+    private String result;
+    private PlayerColour winner;
+    private Tablebase tablebase;
+    private boolean adjudicateWins;
+    private final List<BoardChangeListener> listeners = new ArrayList<>();
+    private volatile MoveEventStream events;
 
     public Game(Board board) {
         this.board = board;
+        updateLegalMoves();
+    }
+
+    public static Game fromFen(CharSequence fen) {
+        return new Game(Fen.parse(fen));
+    }
+
+    public String toFen() {
+        return Fen.format(board);
     }
 
     public Piece pieceAt(int row, int col) {
-        return board.get(new Coordinates(row, col));
+        return board.get(Bitboards.square(row, col));
     }
 
     public List<Move> getAllowedMoves(Coordinates from) {
@@ -26,12 +46,21 @@ public class Game {
             return new ArrayList<>();
         }
 
-        Piece piece = board.get(from);
-        if (piece == null || piece.getColour() != nextPlayer) {
-            return new ArrayList<>();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int square = Bitboards.square(from);
+        List<Move> allowedMoves = new ArrayList<>();
+        for (int i = 0; i < legalMoveCount; i++) {
+            int move = legalMoves[i];
+            // The Move view has no promotion piece, so under-promotions would only show up as duplicates
+            if (Moves.from(move) == square
+                    && (!Moves.isPromotion(move) || Moves.promotionType(move) == Piece.PieceType.QUEEN)) {
+                allowedMoves.add(Moves.toMove(move));
+            }
         }
-
-        return piece.getAllowedMoves(from, board);
+        if (Metrics.ENABLED) {
+            Metrics.GAME_ALLOWED_MOVES.recordSince(start);
+        }
+        return allowedMoves;
     }
 
     public void makeMove(Move move) throws InvalidMoveException {
@@ -47,16 +76,195 @@ public class Game {
             throw new InvalidMoveException(String.format("No piece at %s", from));
         }
 
+        PlayerColour nextPlayer = board.getSideToMove();
         if (piece.getColour() != nextPlayer) {
             throw new InvalidMoveException(String.format("Wrong colour piece - it is %s's turn", nextPlayer));
         }
 
-        if (!piece.getAllowedMoves(move.getFrom(), board).contains(move)) {
+        int packedMove = findMove(Bitboards.square(from), Bitboards.square(to));
+        if (packedMove == Moves.NONE) {
             throw new InvalidMoveException(String.format("Cannot move piece %s from %s to %s", piece, from, to));
         }
 
-        board.move(from, to);
-        nextPlayer = nextPlayer == PlayerColour.WHITE ? PlayerColour.BLACK : PlayerColour.WHITE;
+        makeMove(packedMove);
+    }
+
+    public void makeMove(int move) {
+        long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        board.makeMove(move);
+        updateLegalMoves();
+        if (Metrics.ENABLED) {
+            Metrics.MAKE_MOVE.recordSince(start);
+            Metrics.MAKE_MOVE_ALLOCATION.record(Metrics.allocatedBytes() - allocated);
+        }
+        publish(MoveEvent.Type.MOVE, move);
+    }
+
+    /**
+     * Takes back the last move, which reopens the game if that move ended it.
+     */
+    public void unmakeMove() {
+        int move = board.getMove(board.getUndoCount() - 1);
+        board.unmakeMove();
+        updateLegalMoves();
+        publish(MoveEvent.Type.TAKEBACK, move);
+    }
+
+    /**
+     * Tells {@code listener} which squares change whenever a move is made or taken back, on the thread
+     * that makes it.
+     */
+    public void addListener(BoardChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * A subscription to the moves made and taken back from now on, which may be drained on any thread
+     * while the game goes on. The game never waits for its subscribers: one that falls too far behind
+     * misses events (see {@link MoveEventStream}).
+     */
+    public MoveEventStream.Subscription subscribe() {
+        MoveEventStream stream = events;
+        if (stream == null) {
+            synchronized (this) {
+                stream = events;
+                if (stream == null) {
+                    stream = new MoveEventStream();
+                    events = stream;
+                }
+            }
+        }
+        return stream.subscribe();
+    }
+
+    private void publish(MoveEvent.Type type, int move) {
+        long squares = Moves.changedSquares(move);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onSquaresChanged(squares);
+        }
+        MoveEventStream stream = events;
+        if (stream != null) {
+            stream.publish(type, move, board.getUndoCount(), board.getZobristKey(), squares);
+        }
+    }
+
+    /**
+     * Makes the game end as soon as it reaches a drawn position covered by {@code tablebase}, or play on
+     * as usual if {@code tablebase} is null. A won position is played out, with the tablebase's verdict
+     * as the result meanwhile.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        setTablebase(tablebase, false);
+    }
+
+    /**
+     * As {@link #setTablebase(Tablebase)}, but if {@code adjudicateWins} the game also ends in won
+     * positions, as an engine match does.
+     */
+    public void setTablebase(Tablebase tablebase, boolean adjudicateWins) {
+        this.tablebase = tablebase;
+        this.adjudicateWins = adjudicateWins;
+        updateLegalMoves();
+    }
+
+    /**
+     * Copies the legal moves of the side to move into {@code moves} and returns how many there are.
+     */
+    public int getLegalMoves(int[] moves) {
+        System.arraycopy(legalMoves, 0, moves, 0, legalMoveCount);
+        return legalMoveCount;
+    }
+
+    public boolean canUnmakeMove() {
+        return board.getUndoCount() > 0;
+    }
+
+    public int getMoveCount() {
+        return board.getUndoCount();
+    }
+
+    public int getMove(int ply) {
+        return board.getMove(ply);
+    }
+
+    private int findMove(int from, int to) {
+        for (int i = 0; i < legalMoveCount; i++) {
+            // Promotions are generated queen first, which is what a plain Move asks for
+            if (Moves.from(legalMoves[i]) == from && Moves.to(legalMoves[i]) == to) {
+                return legalMoves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    /**
+     * Regenerates the legal moves of the side to move; having none ends the game, as do the fifty-move
+     * rule and threefold repetition.
+     */
+    private void updateLegalMoves() {
+        legalMoveCount = MoveGenerator.generateLegalMoves(board, legalMoves, 0);
+        winner = null;
+        if (legalMoveCount > 0) {
+            isEnded = false;
+            result = null;
+            if (board.getHalfmoveClock() >= 100) {
+                isEnded = true;
+                result = "Fifty-move rule - it's a draw";
+            } else if (board.isThreefoldRepetition()) {
+                isEnded = true;
+                result = "Threefold repetition - it's a draw";
+            } else {
+                adjudicate();
+            }
+        } else if (board.isInCheck(board.getSideToMove())) {
+            isEnded = true;
+            winner = board.getSideToMove().opponent();
+            result = String.format("Checkmate - %s wins", winner);
+        } else {
+            isEnded = true;
+            result = "Stalemate - it's a draw";
+        }
+    }
+
+    private void adjudicate() {
+        int value = tablebase == null ? Tablebase.NOT_FOUND : tablebase.probe(board);
+        if (value == Tablebase.NOT_FOUND) {
+            return;
+        }
+        if (value == 0) {
+            isEnded = true;
+            result = "Tablebase - it's a draw";
+        } else {
+            PlayerColour mating = Tablebase.isWin(value) ? board.getSideToMove() : board.getSideToMove().opponent();
+            result = String.format("Tablebase - %s mates in %d", mating, (Tablebase.pliesToMate(value) + 1) / 2);
+            if (adjudicateWins) {
+                isEnded = true;
+                winner = mating;
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the current position, for searching without touching the game.
+     */
+    public Board copyBoard() {
+        return board.copy();
+    }
+
+    public long getZobristKey() {
+        return board.getZobristKey();
+    }
+
+    /**
+     * The static evaluation of the current position in centipawns, positive when white is better.
+     */
+    public int getEvaluation() {
+        return board.getEvaluation();
+    }
+
+    public PlayerColour getNextPlayer() {
+        return board.getSideToMove();
     }
 
     public boolean isEnded() {
@@ -64,6 +272,13 @@ public class Game {
     }
 
     public String getResult() {
-        return null;
+        return result;
+    }
+
+    /**
+     * The side that won the game, or null if it is drawn or still going on.
+     */
+    public PlayerColour getWinner() {
+        return winner;
     }
 }
@@ -0,0 +1,144 @@
+package training.chessington.model;
+
+import training.chessington.model.pieces.Piece;
+
+public final class MoveGenerator {
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * Move kinds for staged generation. Captures include en passant and every promotion; quiets are
+     * all other moves, castling included.
+     */
+    public static final int CAPTURES = 1;
+    public static final int QUIETS = 2;
+    public static final int ALL = CAPTURES | QUIETS;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes every move of the side to move into {@code moves}, including ones that leave its own king
+     * in check, and returns the new count.
+     */
+    public static int generatePseudoLegalMoves(Board board, int[] moves, int count) {
+        return generatePseudoLegalMoves(board, ALL, moves, count);
+    }
+
+    /**
+     * As {@link #generatePseudoLegalMoves(Board, int[], int)}, limited to {@link #CAPTURES},
+     * {@link #QUIETS} or both.
+     */
+    public static int generatePseudoLegalMoves(Board board, int kinds, int[] moves, int count) {
+        for (long own = board.getPieces(board.getSideToMove()); own != 0; own = Bitboards.withoutFirst(own)) {
+            int from = Bitboards.first(own);
+            count = board.get(from).generateMoves(from, board, kinds, moves, count);
+        }
+        return count;
+    }
+
+    /**
+     * Whether {@code move} is one of the pseudo-legal moves of the side to move, found by generating the
+     * moves of the piece on its from-square only. Moves remembered from other positions, such as
+     * transposition table or killer moves, must pass this check before they are played.
+     */
+    public static boolean isPseudoLegal(Board board, int move, int[] buffer) {
+        if (move == Moves.NONE) {
+            return false;
+        }
+        int from = Moves.from(move);
+        Piece piece = board.get(from);
+        if (piece == null || piece.getColour() != board.getSideToMove()) {
+            return false;
+        }
+        int kinds = Moves.isCapture(move) || Moves.isPromotion(move) ? CAPTURES : QUIETS;
+        int count = piece.generateMoves(from, board, kinds, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes only the legal moves of the side to move into {@code moves} and returns the new count. The
+     * pieces giving check and the pieces pinned to the king are worked out once, after which each move
+     * is checked against a target mask without playing it; only king moves and en passant captures need
+     * an attack lookup of their own. No moves and {@link Board#isInCheck} together mean checkmate.
+     */
+    public static int generateLegalMoves(Board board, int[] moves, int count) {
+        PlayerColour us = board.getSideToMove();
+        PlayerColour them = us.opponent();
+        long king = board.getPieces(us, Piece.PieceType.KING);
+        if (king == 0) {
+            return generatePseudoLegalMoves(board, moves, count);
+        }
+
+        int kingSquare = Bitboards.first(king);
+        long occupied = board.getOccupied();
+        long ours = board.getPieces(us);
+        long theirQueens = board.getPieces(them, Piece.PieceType.QUEEN);
+        long theirRooks = board.getPieces(them, Piece.PieceType.ROOK) | theirQueens;
+        long theirBishops = board.getPieces(them, Piece.PieceType.BISHOP) | theirQueens;
+
+        long checkers = board.attackersOf(kingSquare, them);
+        long checkMask = checkers == 0 ? Bitboards.ALL
+                : Bitboards.withoutFirst(checkers) != 0 ? Bitboards.EMPTY
+                : checkers | AttackTables.between(kingSquare, Bitboards.first(checkers));
+
+        long pinned = 0;
+        long theirs = board.getPieces(them);
+        long snipers = (AttackTables.rookAttacks(kingSquare, theirs) & theirRooks)
+                | (AttackTables.bishopAttacks(kingSquare, theirs) & theirBishops);
+        for (; snipers != 0; snipers = Bitboards.withoutFirst(snipers)) {
+            long blockers = AttackTables.between(kingSquare, Bitboards.first(snipers)) & occupied;
+            if (Bitboards.withoutFirst(blockers) == 0 && (blockers & ours) != 0) {
+                pinned |= blockers;
+            }
+        }
+
+        // In double check only the king can move
+        long movers = checkMask == Bitboards.EMPTY ? king : ours;
+        for (; movers != 0; movers = Bitboards.withoutFirst(movers)) {
+            int from = Bitboards.first(movers);
+            int start = count;
+            int end = board.get(from).generateMoves(from, board, moves, count);
+
+            long allowed = checkMask;
+            if (Bitboards.contains(pinned, from)) {
+                allowed &= AttackTables.line(kingSquare, from);
+            }
+            for (int i = start; i < end; i++) {
+                int move = moves[i];
+                int to = Moves.to(move);
+                boolean legal;
+                if (from == kingSquare) {
+                    legal = Moves.isCastle(move) || board.attackersOf(to, them, occupied ^ king) == 0;
+                } else if (Moves.flags(move) == Moves.EN_PASSANT) {
+                    legal = isLegalEnPassant(from, to, kingSquare, checkMask, occupied, theirRooks, theirBishops);
+                } else {
+                    legal = Bitboards.contains(allowed, to);
+                }
+                if (legal) {
+                    moves[count++] = move;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * En passant removes two pawns from the capturing side's view of the board at once, which can open
+     * a rank to a rook or queen even though neither pawn is pinned on its own.
+     */
+    private static boolean isLegalEnPassant(int from, int to, int kingSquare, long checkMask, long occupied,
+                                            long theirRooks, long theirBishops) {
+        int captured = Bitboards.square(Bitboards.row(from), Bitboards.col(to));
+        if (!Bitboards.contains(checkMask, to) && !Bitboards.contains(checkMask, captured)) {
+            return false;
+        }
+        long after = occupied ^ Bitboards.bit(from) ^ Bitboards.bit(to) ^ Bitboards.bit(captured);
+        return (AttackTables.rookAttacks(kingSquare, after) & theirRooks) == 0
+                && (AttackTables.bishopAttacks(kingSquare, after) & theirBishops) == 0;
+    }
+}
@@ -0,0 +1,122 @@
+package training.chessington.model;
+
+import training.chessington.model.pieces.Piece;
+
+/**
+ * Moves packed into the low 16 bits of an int: bits 0-5 hold the from-square, bits 6-11 the
+ * to-square and bits 12-15 the flags below. Squares are indexed as in {@link Bitboards}.
+ */
+public final class Moves {
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int KNIGHT_PROMOTION = 8;
+    public static final int BISHOP_PROMOTION = 9;
+    public static final int ROOK_PROMOTION = 10;
+    public static final int QUEEN_PROMOTION = 11;
+
+    private static final Piece.PieceType[] PROMOTION_TYPES = {
+            Piece.PieceType.KNIGHT, Piece.PieceType.BISHOP, Piece.PieceType.ROOK, Piece.PieceType.QUEEN
+    };
+
+    private Moves() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE << 12)) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (PROMOTION << 12)) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static Piece.PieceType promotionType(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flags(move) & 3] : null;
+    }
+
+    /**
+     * The squares whose contents {@code move} changes: its from- and to-squares, plus the pawn taken en
+     * passant or the rook moved by castling.
+     */
+    public static long changedSquares(int move) {
+        int from = from(move);
+        int to = to(move);
+        long squares = Bitboards.bit(from) | Bitboards.bit(to);
+        switch (flags(move)) {
+            case EN_PASSANT:
+                return squares | Bitboards.bit(Bitboards.square(Bitboards.row(from), Bitboards.col(to)));
+            case KING_CASTLE:
+                return squares | Bitboards.bit(to + 1) | Bitboards.bit(to - 1);
+            case QUEEN_CASTLE:
+                return squares | Bitboards.bit(to - 2) | Bitboards.bit(to + 1);
+            default:
+                return squares;
+        }
+    }
+
+    public static Move toMove(int move) {
+        return new Move(Bitboards.coordinates(from(move)), Bitboards.coordinates(to(move)));
+    }
+
+    public static String toUci(int move) {
+        String uci = Bitboards.name(from(move)) + Bitboards.name(to(move));
+        return isPromotion(move) ? uci + "nbrq".charAt(flags(move) & 3) : uci;
+    }
+
+    /**
+     * The move among {@code legalMoves} written in UCI notation as {@code uci}, or {@link #NONE} if
+     * there is none.
+     */
+    public static int fromUci(CharSequence uci, int[] legalMoves, int count) {
+        if (uci.length() < 4 || uci.length() > 5) {
+            return NONE;
+        }
+        int promotion = uci.length() == 5 ? "nbrq".indexOf(uci.charAt(4)) : -1;
+        if (uci.length() == 5 && promotion < 0) {
+            return NONE;
+        }
+        for (int i = 0; i < count; i++) {
+            int move = legalMoves[i];
+            if (matchesSquare(uci, 0, from(move)) && matchesSquare(uci, 2, to(move))
+                    && (isPromotion(move) ? (flags(move) & 3) == promotion : promotion < 0)) {
+                return move;
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean matchesSquare(CharSequence uci, int offset, int square) {
+        return uci.charAt(offset) == 'a' + Bitboards.col(square) && uci.charAt(offset + 1) == '8' - Bitboards.row(square);
+    }
+
+    public static String toString(int move) {
+        return "from " + Bitboards.coordinates(from(move)) + " to " + Bitboards.coordinates(to(move));
+    }
+}
@@ -0,0 +1,78 @@
+package training.chessington.model;
+
+import training.chessington.model.pieces.Piece;
+
+/**
+ * Zobrist keys, generated from a fixed seed so that a position has the same key in every process.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x2C1B3C6D4E5F6071L;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = SEED;
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                squares[square] = mix(state);
+            }
+        }
+        for (int rights = CastlingRights.NONE + 1; rights < CASTLING.length; rights++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(PlayerColour colour, Piece.PieceType type, int square) {
+        return PIECE_SQUARE[colour.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int square) {
+        return square == Board.NO_SQUARE ? 0 : EN_PASSANT_FILE[Bitboards.col(square)];
+    }
+
+    public static long sideToMove(PlayerColour colour) {
+        return colour == PlayerColour.BLACK ? BLACK_TO_MOVE : 0;
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    public static long compute(Board board) {
+        long key = 0;
+        for (long occupied = board.getOccupied(); occupied != 0; occupied = Bitboards.withoutFirst(occupied)) {
+            int square = Bitboards.first(occupied);
+            Piece piece = board.get(square);
+            key ^= piece(piece.getColour(), piece.getType(), square);
+        }
+        return key
+                ^ castling(board.getCastlingRights())
+                ^ enPassant(board.getEnPassantSquare())
+                ^ sideToMove(board.getSideToMove());
+    }
+
+    // SplitMix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,9 +1,21 @@
 package training.chessington.model.pieces;
 
+import training.chessington.metrics.Metrics;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
 import training.chessington.model.PlayerColour;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class AbstractPiece implements Piece {
 
+    protected static final int MAX_PIECE_MOVES = 32;
+
     protected final Piece.PieceType type;
     protected final PlayerColour colour;
 
@@ -22,6 +34,42 @@ public abstract class AbstractPiece implements Piece {
         return colour;
     }
 
+    @Override
+    public List<Move> getAllowedMoves(Coordinates from, Board board) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int[] moves = new int[MAX_PIECE_MOVES];
+        int count = generateMoves(Bitboards.square(from), board, moves, 0);
+
+        List<Move> allowedMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // The Move view has no promotion piece, so under-promotions would only show up as duplicates
+            if (!Moves.isPromotion(moves[i]) || Moves.promotionType(moves[i]) == PieceType.QUEEN) {
+                allowedMoves.add(Moves.toMove(moves[i]));
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.pieceAllowedMoves(type).recordSince(start);
+        }
+        return allowedMoves;
+    }
+
+    protected int addTargets(int from, long targets, Board board, int kinds, int[] moves, int count) {
+        long theirs = board.getPieces(colour.opponent());
+        targets &= ~board.getPieces(colour);
+
+        if ((kinds & MoveGenerator.CAPTURES) != 0) {
+            for (long captures = targets & theirs; captures != 0; captures = Bitboards.withoutFirst(captures)) {
+                moves[count++] = Moves.of(from, Bitboards.first(captures), Moves.CAPTURE);
+            }
+        }
+        if ((kinds & MoveGenerator.QUIETS) != 0) {
+            for (long quiets = targets & ~theirs; quiets != 0; quiets = Bitboards.withoutFirst(quiets)) {
+                moves[count++] = Moves.of(from, Bitboards.first(quiets), Moves.QUIET);
+            }
+        }
+        return count;
+    }
+
     @Override
     public String toString() {
         return colour.toString() + " " + type.toString();
@@ -1,20 +1,49 @@
 package training.chessington.model.pieces;
 
+import training.chessington.model.AttackTables;
+import training.chessington.model.Bitboards;
 import training.chessington.model.Board;
-import training.chessington.model.Coordinates;
-import training.chessington.model.Move;
+import training.chessington.model.CastlingRights;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
 import training.chessington.model.PlayerColour;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class King extends AbstractPiece {
     public King(PlayerColour colour) {
         super(PieceType.KING, colour);
     }
 
     @Override
-    public List<Move> getAllowedMoves(Coordinates from, Board board) {
-        return new ArrayList<>();
+    public int generateMoves(int from, Board board, int kinds, int[] moves, int count) {
+        count = addTargets(from, AttackTables.kingAttacks(from), board, kinds, moves, count);
+        return (kinds & MoveGenerator.QUIETS) != 0 ? generateCastling(from, board, moves, count) : count;
+    }
+
+    private int generateCastling(int from, Board board, int[] moves, int count) {
+        int homeSquare = Bitboards.square(colour == PlayerColour.WHITE ? 7 : 0, 4);
+        int rights = board.getCastlingRights();
+        if (from != homeSquare || (rights & (CastlingRights.kingSide(colour) | CastlingRights.queenSide(colour))) == 0) {
+            return count;
+        }
+
+        PlayerColour enemy = colour.opponent();
+        if (board.isAttacked(from, enemy)) {
+            return count;
+        }
+
+        long occupied = board.getOccupied();
+        if ((rights & CastlingRights.kingSide(colour)) != 0
+                && (occupied & (Bitboards.bit(from + 1) | Bitboards.bit(from + 2))) == 0
+                && !board.isAttacked(from + 1, enemy)
+                && !board.isAttacked(from + 2, enemy)) {
+            moves[count++] = Moves.of(from, from + 2, Moves.KING_CASTLE);
+        }
+        if ((rights & CastlingRights.queenSide(colour)) != 0
+                && (occupied & (Bitboards.bit(from - 1) | Bitboards.bit(from - 2) | Bitboards.bit(from - 3))) == 0
+                && !board.isAttacked(from - 1, enemy)
+                && !board.isAttacked(from - 2, enemy)) {
+            moves[count++] = Moves.of(from, from - 2, Moves.QUEEN_CASTLE);
+        }
+        return count;
     }
 }
@@ -1,20 +1,65 @@
 package training.chessington.model.pieces;
 
+import training.chessington.model.AttackTables;
+import training.chessington.model.Bitboards;
 import training.chessington.model.Board;
-import training.chessington.model.Coordinates;
-import training.chessington.model.Move;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
 import training.chessington.model.PlayerColour;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Pawn extends AbstractPiece {
     public Pawn(PlayerColour colour) {
         super(Piece.PieceType.PAWN, colour);
     }
 
     @Override
-    public List<Move> getAllowedMoves(Coordinates from, Board board) {
-        return new ArrayList<>();
+    public int generateMoves(int from, Board board, int kinds, int[] moves, int count) {
+        int direction = colour == PlayerColour.WHITE ? -1 : 1;
+        int startRow = colour == PlayerColour.WHITE ? 6 : 1;
+        int enPassantRow = colour == PlayerColour.WHITE ? 2 : 5;
+        int row = Bitboards.row(from);
+        int col = Bitboards.col(from);
+        int nextRow = row + direction;
+        if (!Bitboards.isOnBoard(nextRow, col)) {
+            return count;
+        }
+
+        // Promotions change the material balance, so they count as captures even when they capture nothing
+        boolean promoting = nextRow == 0 || nextRow == 7;
+        boolean captures = (kinds & MoveGenerator.CAPTURES) != 0;
+        long empty = board.getEmpty();
+        int forward = Bitboards.square(nextRow, col);
+        if (Bitboards.contains(empty, forward) && (promoting ? captures : (kinds & MoveGenerator.QUIETS) != 0)) {
+            count = addPawnMove(from, forward, Moves.QUIET, moves, count);
+            int doubleForward = Bitboards.square(nextRow + direction, col);
+            if (row == startRow && Bitboards.contains(empty, doubleForward)) {
+                moves[count++] = Moves.of(from, doubleForward, Moves.DOUBLE_PAWN_PUSH);
+            }
+        }
+        if (!captures) {
+            return count;
+        }
+
+        long attacks = AttackTables.pawnAttacks(colour, from);
+        for (long targets = attacks & board.getPieces(colour.opponent()); targets != 0; targets = Bitboards.withoutFirst(targets)) {
+            count = addPawnMove(from, Bitboards.first(targets), Moves.CAPTURE, moves, count);
+        }
+        int enPassantSquare = board.getEnPassantSquare();
+        if (enPassantSquare != Board.NO_SQUARE && nextRow == enPassantRow && Bitboards.contains(attacks, enPassantSquare)) {
+            moves[count++] = Moves.of(from, enPassantSquare, Moves.EN_PASSANT);
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int from, int to, int flags, int[] moves, int count) {
+        int toRow = Bitboards.row(to);
+        if (toRow == 0 || toRow == 7) {
+            for (int promotion = Moves.QUEEN_PROMOTION; promotion >= Moves.KNIGHT_PROMOTION; promotion--) {
+                moves[count++] = Moves.of(from, to, promotion | flags);
+            }
+        } else {
+            moves[count++] = Moves.of(from, to, flags);
+        }
+        return count;
     }
 }
@@ -3,6 +3,7 @@ package training.chessington.model.pieces;
 import training.chessington.model.Board;
 import training.chessington.model.Coordinates;
 import training.chessington.model.Move;
+import training.chessington.model.MoveGenerator;
 import training.chessington.model.PlayerColour;
 
 import java.util.List;
@@ -16,4 +17,18 @@ public interface Piece {
     PlayerColour getColour();
 
     List<Move> getAllowedMoves(Coordinates from, Board board);
+
+    /**
+     * Writes the moves of this piece from the given square into {@code moves} as packed ints (see
+     * {@link training.chessington.model.Moves}), starting at index {@code count}, and returns the new count.
+     */
+    default int generateMoves(int from, Board board, int[] moves, int count) {
+        return generateMoves(from, board, MoveGenerator.ALL, moves, count);
+    }
+
+    /**
+     * As {@link #generateMoves(int, Board, int[], int)}, limited to the given kinds of move:
+     * {@link MoveGenerator#CAPTURES}, {@link MoveGenerator#QUIETS} or both.
+     */
+    int generateMoves(int from, Board board, int kinds, int[] moves, int count);
 }
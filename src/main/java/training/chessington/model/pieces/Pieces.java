@@ -0,0 +1,30 @@
+package training.chessington.model.pieces;
+
+import training.chessington.model.PlayerColour;
+
+/**
+ * The shared instance of each of the twelve pieces. Pieces hold no state beyond their type and
+ * colour, so boards, parsers and promotions all use these rather than creating their own.
+ */
+public final class Pieces {
+    private static final Piece[] PIECES = new Piece[12];
+
+    static {
+        for (PlayerColour colour : PlayerColour.values()) {
+            int offset = colour.ordinal() * 6;
+            PIECES[offset] = new Pawn(colour);
+            PIECES[offset + 1] = new Knight(colour);
+            PIECES[offset + 2] = new Bishop(colour);
+            PIECES[offset + 3] = new Rook(colour);
+            PIECES[offset + 4] = new Queen(colour);
+            PIECES[offset + 5] = new King(colour);
+        }
+    }
+
+    private Pieces() {
+    }
+
+    public static Piece of(Piece.PieceType type, PlayerColour colour) {
+        return PIECES[colour.ordinal() * 6 + type.ordinal()];
+    }
+}
@@ -1,20 +1,16 @@
 package training.chessington.model.pieces;
 
+import training.chessington.model.AttackTables;
 import training.chessington.model.Board;
-import training.chessington.model.Coordinates;
-import training.chessington.model.Move;
 import training.chessington.model.PlayerColour;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Queen extends AbstractPiece {
     public Queen(PlayerColour colour) {
         super(PieceType.QUEEN, colour);
     }
 
     @Override
-    public List<Move> getAllowedMoves(Coordinates from, Board board) {
-        return new ArrayList<>();
+    public int generateMoves(int from, Board board, int kinds, int[] moves, int count) {
+        return addTargets(from, AttackTables.queenAttacks(from, board.getOccupied()), board, kinds, moves, count);
     }
 }
@@ -1,20 +1,16 @@
 package training.chessington.model.pieces;
 
+import training.chessington.model.AttackTables;
 import training.chessington.model.Board;
-import training.chessington.model.Coordinates;
-import training.chessington.model.Move;
 import training.chessington.model.PlayerColour;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Rook extends AbstractPiece {
     public Rook(PlayerColour colour) {
         super(PieceType.ROOK, colour);
     }
 
     @Override
-    public List<Move> getAllowedMoves(Coordinates from, Board board) {
-        return new ArrayList<>();
+    public int generateMoves(int from, Board board, int kinds, int[] moves, int count) {
+        return addTargets(from, AttackTables.rookAttacks(from, board.getOccupied()), board, kinds, moves, count);
     }
 }
@@ -0,0 +1,170 @@
+package training.chessington.parallel;
+
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.MoveGenerator;
+import training.chessington.perft.Perft;
+import training.chessington.perft.PerftPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a fork-join pool. Every task works on its own copy of the board, and node counts
+ * are summed, so the result does not depend on scheduling.
+ */
+public class ParallelPerft implements AutoCloseable {
+    public static final int DEFAULT_SEQUENTIAL_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final SplitStrategy strategy;
+    private final int sequentialDepth;
+
+    public ParallelPerft(int parallelism, SplitStrategy strategy) {
+        this(parallelism, strategy, DEFAULT_SEQUENTIAL_DEPTH);
+    }
+
+    public ParallelPerft(int parallelism, SplitStrategy strategy, int sequentialDepth) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.strategy = strategy;
+        this.sequentialDepth = sequentialDepth;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public long count(Board board, int depth) {
+        if (depth <= 1) {
+            return new Perft(board.copy()).count(depth);
+        }
+        Board root = board.copy();
+        return pool.invoke(strategy == SplitStrategy.STATIC
+                ? new StaticRootTask(root, depth, pool.getParallelism())
+                : new SplittingTask(root, depth, sequentialDepth));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static int legalMoves(Board board, int[] moves) {
+        return MoveGenerator.generateLegalMoves(board, moves, 0);
+    }
+
+    private static final class SplittingTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int sequentialDepth;
+
+        SplittingTask(Board board, int depth, int sequentialDepth) {
+            this.board = board;
+            this.depth = depth;
+            this.sequentialDepth = sequentialDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= sequentialDepth) {
+                return new Perft(board).count(depth);
+            }
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int moveCount = legalMoves(board, moves);
+            List<SplittingTask> children = new ArrayList<>(moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                Board child = board.copy();
+                child.makeMove(moves[i]);
+                children.add(new SplittingTask(child, depth - 1, sequentialDepth));
+            }
+
+            long nodes = 0;
+            for (SplittingTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static final class StaticRootTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int chunks;
+
+        StaticRootTask(Board board, int depth, int chunks) {
+            this.board = board;
+            this.depth = depth;
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected Long compute() {
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int moveCount = legalMoves(board, moves);
+            List<ChunkTask> tasks = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < Math.min(chunks, moveCount); chunk++) {
+                tasks.add(new ChunkTask(board.copy(), depth, moves, moveCount, chunk, chunks));
+            }
+
+            long nodes = 0;
+            for (ChunkTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int[] moves;
+        private final int moveCount;
+        private final int first;
+        private final int stride;
+
+        ChunkTask(Board board, int depth, int[] moves, int moveCount, int first, int stride) {
+            this.board = board;
+            this.depth = depth;
+            this.moves = moves;
+            this.moveCount = moveCount;
+            this.first = first;
+            this.stride = stride;
+        }
+
+        @Override
+        protected Long compute() {
+            Perft perft = new Perft(board);
+            long nodes = 0;
+            for (int i = first; i < moveCount; i += stride) {
+                board.makeMove(moves[i]);
+                nodes += perft.count(depth - 1);
+                board.unmakeMove();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Reports how perft scales with the number of workers. Usage: {@code ParallelPerft [depth] [maxThreads]}.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+
+        for (SplitStrategy strategy : SplitStrategy.values()) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                try (ParallelPerft perft = new ParallelPerft(threads, strategy)) {
+                    long start = System.nanoTime();
+                    long nodes = perft.count(board, depth);
+                    long nanos = System.nanoTime() - start;
+                    System.out.printf("%-13s %3d threads: %,15d nodes in %7.2f s, %,14.0f nodes/s%n",
+                            strategy, threads, nodes, nanos / 1e9, nodes * 1e9 / nanos);
+                }
+            }
+        }
+    }
+}
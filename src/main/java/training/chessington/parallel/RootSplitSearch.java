@@ -0,0 +1,124 @@
+package training.chessington.parallel;
+
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Searches each root move in its own fork-join task on a private copy of the board. Scores are
+ * collected per root move and the best one is picked afterwards, ties going to the earlier move, so
+ * the result is the same whatever order the tasks finish in.
+ */
+public class RootSplitSearch implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final SplitStrategy strategy;
+    private final ThreadLocal<SubtreeSearch> searches;
+
+    public RootSplitSearch(int parallelism, SplitStrategy strategy, Supplier<SubtreeSearch> searchFactory) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.strategy = strategy;
+        this.searches = ThreadLocal.withInitial(searchFactory);
+    }
+
+    public Result search(Board board, int depth) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int moveCount = MoveGenerator.generateLegalMoves(board, moves, 0);
+        int[] scores = new int[moveCount];
+        if (moveCount == 0) {
+            return new Result(new int[0], scores);
+        }
+
+        int chunks = strategy == SplitStrategy.STATIC ? Math.min(pool.getParallelism(), moveCount) : moveCount;
+        List<RootTask> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            tasks.add(new RootTask(board.copy(), depth, moves, moveCount, scores, chunk, chunks));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return new Result(Arrays.copyOf(moves, moveCount), scores);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private final class RootTask extends RecursiveAction {
+        private final Board board;
+        private final int depth;
+        private final int[] moves;
+        private final int moveCount;
+        private final int[] scores;
+        private final int first;
+        private final int stride;
+
+        RootTask(Board board, int depth, int[] moves, int moveCount, int[] scores, int first, int stride) {
+            this.board = board;
+            this.depth = depth;
+            this.moves = moves;
+            this.moveCount = moveCount;
+            this.scores = scores;
+            this.first = first;
+            this.stride = stride;
+        }
+
+        @Override
+        protected void compute() {
+            SubtreeSearch search = searches.get();
+            for (int i = first; i < moveCount; i += stride) {
+                board.makeMove(moves[i]);
+                scores[i] = -search.search(board, depth - 1);
+                board.unmakeMove();
+            }
+        }
+    }
+
+    public static final class Result {
+        private final int[] moves;
+        private final int[] scores;
+        private final int bestIndex;
+
+        Result(int[] moves, int[] scores) {
+            this.moves = moves;
+            this.scores = scores;
+            int best = -1;
+            for (int i = 0; i < moves.length; i++) {
+                if (best < 0 || scores[i] > scores[best]) {
+                    best = i;
+                }
+            }
+            this.bestIndex = best;
+        }
+
+        public int getBestMove() {
+            return bestIndex < 0 ? Moves.NONE : moves[bestIndex];
+        }
+
+        public int getBestScore() {
+            return bestIndex < 0 ? 0 : scores[bestIndex];
+        }
+
+        public int getMoveCount() {
+            return moves.length;
+        }
+
+        public int getMove(int index) {
+            return moves[index];
+        }
+
+        public int getScore(int index) {
+            return scores[index];
+        }
+    }
+}
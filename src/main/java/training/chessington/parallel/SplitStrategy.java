@@ -0,0 +1,15 @@
+package training.chessington.parallel;
+
+public enum SplitStrategy {
+    /**
+     * Every subtree above the split depth becomes its own fork-join task, so idle workers steal
+     * whatever work is left.
+     */
+    WORK_STEALING,
+
+    /**
+     * The root moves are dealt out into one fixed chunk per worker up front and each chunk is
+     * searched sequentially.
+     */
+    STATIC
+}
@@ -0,0 +1,12 @@
+package training.chessington.parallel;
+
+import training.chessington.model.Board;
+
+@FunctionalInterface
+public interface SubtreeSearch {
+    /**
+     * Scores the position on {@code board} from the point of view of its side to move, searching
+     * {@code depth} more plies. The board must be left as it was found.
+     */
+    int search(Board board, int depth);
+}
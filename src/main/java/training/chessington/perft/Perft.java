@@ -0,0 +1,57 @@
+package training.chessington.perft;
+
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, walking a single board with
+ * make/unmake and one reusable move buffer per ply. Moves at the last ply are counted rather than played.
+ */
+public class Perft {
+    private static final int MAX_DEPTH = 32;
+
+    private final Board board;
+    private final int[][] moveBuffers = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+
+    public Perft(Board board) {
+        this.board = board;
+    }
+
+    public long count(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Perft depth is limited to " + MAX_DEPTH);
+        }
+        return depth == 0 ? 1 : count(depth, 0);
+    }
+
+    public Map<String, Long> divide(int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        int[] moves = moveBuffers[0];
+        int moveCount = MoveGenerator.generateLegalMoves(board, moves, 0);
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            counts.put(Moves.toUci(moves[i]), depth <= 1 ? 1 : count(depth - 1, 1));
+            board.unmakeMove();
+        }
+        return counts;
+    }
+
+    private long count(int depth, int ply) {
+        int[] moves = moveBuffers[ply];
+        int moveCount = MoveGenerator.generateLegalMoves(board, moves, 0);
+        if (depth == 1) {
+            return moveCount;
+        }
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            nodes += count(depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,44 @@
+package training.chessington.perft;
+
+import training.chessington.model.Fen;
+
+/**
+ * Runs perft over the standard positions and reports node counts, correctness and nodes per second.
+ * Usage: {@code PerftSuite [maxDepth]}; each position is searched to the smaller of maxDepth and its
+ * deepest published count.
+ */
+public class PerftSuite {
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+
+        for (PerftPosition position : PerftPosition.values()) {
+            int depth = Math.min(maxDepth, position.getMaxDepth());
+            Perft perft = new Perft(Fen.parse(position.getFen()));
+
+            long start = System.nanoTime();
+            long nodes = perft.count(depth);
+            long nanos = System.nanoTime() - start;
+
+            long expected = position.getExpectedNodes(depth);
+            boolean passed = nodes == expected;
+            allPassed &= passed;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            System.out.printf("%-18s depth %d: %,15d nodes (expected %,15d) %s  %,12.0f nodes/s%n",
+                    position, depth, nodes, expected, passed ? "OK  " : "FAIL", nodesPerSecond(nodes, nanos));
+        }
+
+        System.out.printf("Total: %,d nodes in %.2f s, %,.0f nodes/s%n",
+                totalNodes, totalNanos / 1e9, nodesPerSecond(totalNodes, totalNanos));
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    private static double nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+    }
+}
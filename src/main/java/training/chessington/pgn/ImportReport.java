@@ -0,0 +1,99 @@
+package training.chessington.pgn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a {@link PgnImporter} run found. Only the first {@link #MAX_REPORTED_ILLEGAL_MOVES} illegal
+ * moves are kept, so that a badly broken archive cannot exhaust memory; the count covers them all.
+ */
+public final class ImportReport {
+    public static final int MAX_REPORTED_ILLEGAL_MOVES = 1000;
+
+    private final long games;
+    private final long moves;
+    private final long illegalGames;
+    private final long elapsedNanos;
+    private final List<IllegalMove> illegalMoves;
+
+    ImportReport(long games, long moves, long illegalGames, long elapsedNanos, List<IllegalMove> illegalMoves) {
+        this.games = games;
+        this.moves = moves;
+        this.illegalGames = illegalGames;
+        this.elapsedNanos = elapsedNanos;
+        List<IllegalMove> sorted = new ArrayList<>(illegalMoves);
+        sorted.sort((a, b) -> Long.compare(a.getGameNumber(), b.getGameNumber()));
+        this.illegalMoves = Collections.unmodifiableList(sorted);
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * The moves replayed successfully, across all games.
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * The number of games that stopped at an illegal or unreadable move.
+     */
+    public long getIllegalGames() {
+        return illegalGames;
+    }
+
+    public List<IllegalMove> getIllegalMoves() {
+        return illegalMoves;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d games, %,d moves, %,d with illegal moves in %.2f s (%,.0f games/s)",
+                games, moves, illegalGames, elapsedNanos / 1e9, getGamesPerSecond());
+    }
+
+    public static final class IllegalMove {
+        private final long gameNumber;
+        private final int ply;
+        private final String san;
+        private final String game;
+
+        IllegalMove(PgnGame game, int ply, String san) {
+            this.gameNumber = game.getNumber();
+            this.ply = ply;
+            this.san = san;
+            this.game = game.toString();
+        }
+
+        public long getGameNumber() {
+            return gameNumber;
+        }
+
+        /**
+         * The half-move at which the game went wrong, counting from 1.
+         */
+        public int getPly() {
+            return ply;
+        }
+
+        public String getSan() {
+            return san;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s at ply %d is not legal", game, san, ply);
+        }
+    }
+}
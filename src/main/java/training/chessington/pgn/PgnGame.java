@@ -0,0 +1,62 @@
+package training.chessington.pgn;
+
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game as read from a PGN file: its tag pairs, its main line in SAN and its result token.
+ * Comments, variations and annotations are dropped by the reader.
+ */
+public final class PgnGame {
+    private final long number;
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final String result;
+
+    public PgnGame(long number, Map<String, String> tags, List<String> moves, String result) {
+        this.number = number;
+        this.tags = Collections.unmodifiableMap(tags);
+        this.moves = Collections.unmodifiableList(moves);
+        this.result = result;
+    }
+
+    /**
+     * The position of this game in its file, counting from 1.
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * The position the game starts from: the FEN tag if there is one, otherwise the standard start.
+     */
+    public Board createStartingBoard() {
+        String fen = tags.get("FEN");
+        return fen == null ? Board.forNewGame() : Fen.parse(fen);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("game %d (%s - %s)", number, tags.get("White"), tags.get("Black"));
+    }
+}
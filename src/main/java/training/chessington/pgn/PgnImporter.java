@@ -0,0 +1,173 @@
+package training.chessington.pgn;
+
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays every game of a PGN archive through {@link Game} to check it against the rules. One
+ * thread reads games into a bounded queue and the workers replay them; when the workers fall
+ * behind the reader blocks, so memory use is bounded by the queue size rather than the archive.
+ * Usage: {@code PgnImporter <file.pgn> [threads]}.
+ */
+public class PgnImporter {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final PgnGame END_OF_INPUT = new PgnGame(0, Collections.emptyMap(), Collections.emptyList(), "*");
+
+    private final int threads;
+    private final int queueCapacity;
+
+    public PgnImporter(int threads) {
+        this(threads, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public PgnImporter(int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one replay thread is needed");
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportReport importFile(Path path) throws IOException, InterruptedException {
+        try (PgnReader reader = PgnReader.open(path)) {
+            return importGames(reader);
+        }
+    }
+
+    public ImportReport importGames(PgnReader reader) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        BlockingQueue<PgnGame> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Totals totals = new Totals();
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pgn-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Void> replays = new ExecutorCompletionService<>(workers);
+            for (int i = 0; i < threads; i++) {
+                replays.submit(() -> {
+                    replayAll(queue, totals);
+                    return null;
+                });
+            }
+
+            // Workers only finish before their END_OF_INPUT by failing, which get() rethrows at once
+            int finished = 0;
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                while (!queue.offer(game, 100, TimeUnit.MILLISECONDS)) {
+                    finished += pollFinished(replays);
+                }
+            }
+            for (int i = 0; i < threads; i++) {
+                while (!queue.offer(END_OF_INPUT, 100, TimeUnit.MILLISECONDS)) {
+                    finished += pollFinished(replays);
+                }
+            }
+            for (; finished < threads; finished++) {
+                replays.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replaying a game failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return new ImportReport(totals.games.get(), totals.moves.get(), totals.illegalGames.get(),
+                System.nanoTime() - start, totals.illegalMoves);
+    }
+
+    private static int pollFinished(CompletionService<Void> replays)
+            throws InterruptedException, ExecutionException {
+        Future<Void> replay = replays.poll();
+        if (replay == null) {
+            return 0;
+        }
+        replay.get();
+        return 1;
+    }
+
+    private static void replayAll(BlockingQueue<PgnGame> queue, Totals totals) throws InterruptedException {
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        for (PgnGame game = queue.take(); game != END_OF_INPUT; game = queue.take()) {
+            replay(game, buffer, totals);
+        }
+    }
+
+    private static void replay(PgnGame pgn, int[] buffer, Totals totals) {
+        Game game;
+        try {
+            game = new Game(pgn.createStartingBoard());
+        } catch (IllegalArgumentException e) {
+            totals.reportIllegal(new ImportReport.IllegalMove(pgn, 0, "[FEN \"" + pgn.getTag("FEN") + "\"]"));
+            totals.games.incrementAndGet();
+            return;
+        }
+
+        List<String> moves = pgn.getMoves();
+        long replayed = 0;
+        for (int ply = 0; ply < moves.size(); ply++) {
+            int move = San.parse(moves.get(ply), game, buffer);
+            if (move == Moves.NONE) {
+                totals.reportIllegal(new ImportReport.IllegalMove(pgn, ply + 1, moves.get(ply)));
+                break;
+            }
+            game.makeMove(move);
+            replayed++;
+        }
+        totals.games.incrementAndGet();
+        totals.moves.addAndGet(replayed);
+    }
+
+    private static final class Totals {
+        private final AtomicLong games = new AtomicLong();
+        private final AtomicLong moves = new AtomicLong();
+        private final AtomicLong illegalGames = new AtomicLong();
+        private final List<ImportReport.IllegalMove> illegalMoves = new ArrayList<>();
+
+        void reportIllegal(ImportReport.IllegalMove illegalMove) {
+            illegalGames.incrementAndGet();
+            synchronized (illegalMoves) {
+                if (illegalMoves.size() < ImportReport.MAX_REPORTED_ILLEGAL_MOVES) {
+                    illegalMoves.add(illegalMove);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: PgnImporter <file.pgn> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ImportReport report = new PgnImporter(threads).importFile(Paths.get(args[0]));
+        for (ImportReport.IllegalMove illegalMove : report.getIllegalMoves()) {
+            System.out.println(illegalMove);
+        }
+        System.out.println(report);
+        if (report.getIllegalGames() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package training.chessington.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN channel through a fixed-size direct buffer, so memory use
+ * does not depend on the size of the file. Movetext is split into SAN tokens; move numbers,
+ * comments, variations, NAGs and escape lines are skipped. Tag values are decoded as UTF-8.
+ */
+public class PgnReader implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final int END = -1;
+    private static final int NONE = -2;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+    private int pushedBack = NONE;
+    private int last = '\n';
+    private boolean atLineStart;
+    private long gamesRead;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public PgnReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * The next game, or null once the input is exhausted. A game cut off without a result token
+     * is returned with the result {@code *}.
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        while (true) {
+            int c = skipWhitespace();
+            switch (c) {
+                case END:
+                    return tags.isEmpty() && moves.isEmpty() ? null : finish(tags, moves, "*");
+                case '[':
+                    if (!moves.isEmpty()) {
+                        // A new tag section means the previous game ended without a result
+                        pushedBack = c;
+                        return finish(tags, moves, "*");
+                    }
+                    readTag(tags);
+                    break;
+                case '{':
+                    skipUntil('}');
+                    break;
+                case ';':
+                    skipUntil('\n');
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case ')':
+                    // Unbalanced variation end
+                    break;
+                case '%':
+                    if (atLineStart) {
+                        skipUntil('\n');
+                    } else {
+                        readToken(c);
+                    }
+                    break;
+                default:
+                    readToken(c);
+                    String result = resultToken();
+                    if (result != null) {
+                        return finish(tags, moves, result);
+                    }
+                    addMove(moves);
+                    break;
+            }
+        }
+    }
+
+    public long getGamesRead() {
+        return gamesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private PgnGame finish(Map<String, String> tags, List<String> moves, String result) {
+        gamesRead++;
+        return new PgnGame(gamesRead, tags, moves, result);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        tokenLength = 0;
+        int c = skipWhitespace();
+        while (c != END && c != '"' && c != ']' && !isWhitespace(c)) {
+            append(c);
+            c = read();
+        }
+        String name = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+
+        while (c != END && c != '"' && c != ']') {
+            c = read();
+        }
+        tokenLength = 0;
+        if (c == '"') {
+            for (c = read(); c != END && c != '"'; c = read()) {
+                if (c == '\\') {
+                    c = read();
+                }
+                append(c);
+            }
+            skipUntil(']');
+        }
+        tags.put(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+    }
+
+    private void readToken(int first) throws IOException {
+        tokenLength = 0;
+        int c = first;
+        while (c != END && !isWhitespace(c) && c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+            append(c);
+            c = read();
+        }
+        if (c != END && !isWhitespace(c)) {
+            pushedBack = c;
+        }
+    }
+
+    private String resultToken() {
+        if (matches("1-0") || matches("0-1") || matches("1/2-1/2") || matches("*")) {
+            return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the current token as a move, without any move number in front of it. Tokens that are only
+     * a move number or a NAG are dropped.
+     */
+    private void addMove(List<String> moves) {
+        int start = 0;
+        if (tokenLength == 0 || token[0] == '$') {
+            return;
+        }
+        if (token[0] >= '1' && token[0] <= '9') {
+            while (start < tokenLength && token[start] >= '0' && token[start] <= '9') {
+                start++;
+            }
+            while (start < tokenLength && token[start] == '.') {
+                start++;
+            }
+        }
+        if (start < tokenLength) {
+            moves.add(new String(token, start, tokenLength - start, StandardCharsets.US_ASCII));
+        }
+    }
+
+    private boolean matches(String text) {
+        if (tokenLength != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case END:
+                    return;
+                case '(':
+                    depth++;
+                    break;
+                case ')':
+                    depth--;
+                    break;
+                case '{':
+                    skipUntil('}');
+                    break;
+                case ';':
+                    skipUntil('\n');
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != END && c != end);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (isWhitespace(c));
+        return c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private void append(int c) {
+        if (tokenLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, tokenLength);
+            token = larger;
+        }
+        token[tokenLength++] = (byte) c;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                return END;
+            }
+        }
+        int c = buffer.get() & 0xFF;
+        atLineStart = last == '\n';
+        last = c;
+        return c;
+    }
+}
@@ -0,0 +1,88 @@
+package training.chessington.pgn;
+
+import training.chessington.model.Board;
+import training.chessington.model.PlayerColour;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN, one at a time, with movetext wrapped at {@link #LINE_LENGTH} characters. Each
+ * game is flushed as soon as it is written, so a file being written can be read while it grows.
+ * Games may be written from any number of threads.
+ */
+public class PgnWriter implements Closeable {
+    public static final int LINE_LENGTH = 80;
+
+    private final Writer writer;
+
+    public PgnWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Opens {@code path} for writing, after any games it already holds.
+     */
+    public static PgnWriter open(Path path) throws IOException {
+        return new PgnWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+    }
+
+    public synchronized void write(PgnGame game) throws IOException {
+        StringBuilder text = new StringBuilder(1024);
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            text.append('[').append(tag.getKey()).append(" \"")
+                    .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append("\"]\n");
+        }
+        text.append('\n');
+
+        Board start = game.createStartingBoard();
+        int moveNumber = start.getFullmoveNumber();
+        boolean white = start.getSideToMove() == PlayerColour.WHITE;
+        int lineStart = text.length();
+        List<String> moves = game.getMoves();
+        for (int i = 0; i < moves.size(); i++) {
+            if (white) {
+                lineStart = append(text, lineStart, moveNumber + ".");
+            } else if (i == 0) {
+                lineStart = append(text, lineStart, moveNumber + "...");
+            }
+            lineStart = append(text, lineStart, moves.get(i));
+            if (!white) {
+                moveNumber++;
+            }
+            white = !white;
+        }
+        append(text, lineStart, game.getResult());
+        text.append("\n\n");
+
+        writer.write(text.toString());
+        writer.flush();
+    }
+
+    private static int append(StringBuilder text, int lineStart, String token) {
+        if (text.length() > lineStart) {
+            if (text.length() - lineStart + 1 + token.length() > LINE_LENGTH) {
+                text.append('\n');
+                lineStart = text.length();
+            } else {
+                text.append(' ');
+            }
+        }
+        text.append(token);
+        return lineStart;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,243 @@
+package training.chessington.pgn;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.pieces.Piece;
+
+/**
+ * Standard Algebraic Notation, resolved against the legal moves of a position. Trailing check,
+ * mate and annotation marks are ignored, as are the {@code 0-0} spelling of castling and a
+ * promotion written without {@code =}.
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    /**
+     * The legal move written as {@code san}, or {@link Moves#NONE} if no legal move or more than one
+     * matches it.
+     */
+    public static int parse(CharSequence san, Board board) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+        return parse(san, board, moves, count);
+    }
+
+    /**
+     * As {@link #parse(CharSequence, Board)}, for the current position of a game. {@code buffer} receives
+     * the game's legal moves and must hold at least {@link MoveGenerator#MAX_MOVES}.
+     */
+    public static int parse(CharSequence san, Game game, int[] buffer) {
+        int count = game.getLegalMoves(buffer);
+        return parse(san, buffer, count,
+                square -> game.pieceAt(Bitboards.row(square), Bitboards.col(square)).getType());
+    }
+
+    public static int parse(CharSequence san, Board board, int[] legalMoves, int count) {
+        return parse(san, legalMoves, count, square -> board.get(square).getType());
+    }
+
+    private static int parse(CharSequence san, int[] legalMoves, int count, PieceTypes pieceTypes) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end < 2) {
+            return Moves.NONE;
+        }
+
+        if (isCastling(san, end, 3)) {
+            return findCastle(legalMoves, count, Moves.KING_CASTLE);
+        }
+        if (isCastling(san, end, 5)) {
+            return findCastle(legalMoves, count, Moves.QUEEN_CASTLE);
+        }
+
+        int start = 0;
+        Piece.PieceType type = pieceType(san.charAt(0));
+        if (type == null) {
+            type = Piece.PieceType.PAWN;
+        } else {
+            start++;
+        }
+
+        Piece.PieceType promotion = null;
+        char last = san.charAt(end - 1);
+        if (type == Piece.PieceType.PAWN && pieceType(last) != null) {
+            promotion = pieceType(last);
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+
+        if (end - start < 2) {
+            return Moves.NONE;
+        }
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRow = '8' - san.charAt(end - 1);
+        if (!Bitboards.isOnBoard(toRow, toCol)) {
+            return Moves.NONE;
+        }
+        int to = Bitboards.square(toRow, toCol);
+
+        int fromCol = -1;
+        int fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = '8' - c;
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Moves.NONE;
+            }
+        }
+
+        int match = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = legalMoves[i];
+            int from = Moves.from(move);
+            if (Moves.to(move) != to
+                    || pieceTypes.at(from) != type
+                    || Moves.isCastle(move)
+                    || fromCol >= 0 && Bitboards.col(from) != fromCol
+                    || fromRow >= 0 && Bitboards.row(from) != fromRow
+                    || Moves.promotionType(move) != promotion) {
+                continue;
+            }
+            if (match != Moves.NONE) {
+                return Moves.NONE;
+            }
+            match = move;
+        }
+        return match;
+    }
+
+    /**
+     * {@code move}, which must be legal in {@code board}'s position, written in SAN with a check or
+     * mate mark. The move is played and taken back on {@code board} to find those.
+     */
+    public static String format(int move, Board board) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+        return format(move, board, moves, count);
+    }
+
+    /**
+     * As {@link #format(int, Board)}, given the legal moves of {@code board}'s position. Those are
+     * overwritten when the move gives check, to look for a mate.
+     */
+    public static String format(int move, Board board, int[] moves, int count) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        Piece.PieceType type = board.get(from).getType();
+
+        StringBuilder san = new StringBuilder(8);
+        if (Moves.isCastle(move)) {
+            san.append(Moves.flags(move) == Moves.KING_CASTLE ? "O-O" : "O-O-O");
+        } else if (type == Piece.PieceType.PAWN) {
+            if (Moves.isCapture(move)) {
+                san.append(Bitboards.name(from).charAt(0)).append('x');
+            }
+            san.append(Bitboards.name(to));
+            if (Moves.isPromotion(move)) {
+                san.append('=').append(PIECE_LETTERS.charAt(Moves.promotionType(move).ordinal()));
+            }
+        } else {
+            san.append(PIECE_LETTERS.charAt(type.ordinal()));
+            appendDisambiguation(san, move, type, board, moves, count);
+            if (Moves.isCapture(move)) {
+                san.append('x');
+            }
+            san.append(Bitboards.name(to));
+        }
+
+        board.makeMove(move);
+        if (board.isInCheck(board.getSideToMove())) {
+            san.append(MoveGenerator.generateLegalMoves(board, moves, 0) == 0 ? '#' : '+');
+        }
+        board.unmakeMove();
+        return san.toString();
+    }
+
+    /**
+     * Adds the from-file, from-rank or both when another piece of the same type can reach the same
+     * square, preferring the file as SAN does.
+     */
+    private static void appendDisambiguation(StringBuilder san, int move, Piece.PieceType type, Board board,
+                                             int[] moves, int count) {
+        int from = Moves.from(move);
+        boolean ambiguous = false;
+        boolean sameCol = false;
+        boolean sameRow = false;
+        for (int i = 0; i < count; i++) {
+            int other = Moves.from(moves[i]);
+            if (other == from || Moves.to(moves[i]) != Moves.to(move) || board.get(other).getType() != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameCol |= Bitboards.col(other) == Bitboards.col(from);
+            sameRow |= Bitboards.row(other) == Bitboards.row(from);
+        }
+        String name = Bitboards.name(from);
+        if (ambiguous && (!sameCol || sameRow)) {
+            san.append(name.charAt(0));
+        }
+        if (ambiguous && sameCol) {
+            san.append(name.charAt(1));
+        }
+    }
+
+    private interface PieceTypes {
+        Piece.PieceType at(int square);
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isCastling(CharSequence san, int end, int length) {
+        if (end != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = san.charAt(i);
+            if (i % 2 == 0 ? c != 'O' && c != '0' : c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findCastle(int[] legalMoves, int count, int flags) {
+        for (int i = 0; i < count; i++) {
+            if (Moves.flags(legalMoves[i]) == flags) {
+                return legalMoves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    private static Piece.PieceType pieceType(char c) {
+        switch (c) {
+            case 'N':
+                return Piece.PieceType.KNIGHT;
+            case 'B':
+                return Piece.PieceType.BISHOP;
+            case 'R':
+                return Piece.PieceType.ROOK;
+            case 'Q':
+                return Piece.PieceType.QUEEN;
+            case 'K':
+                return Piece.PieceType.KING;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package training.chessington.server;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The operations a player has on hosted games. Every call returns at once; the future completes when
+ * the game's event loop has handled it. Calls for an unknown game complete exceptionally with an
+ * {@link IllegalArgumentException}.
+ */
+public interface GameClient {
+    CompletableFuture<GameState> createGame();
+
+    /**
+     * Starts a game from a FEN position.
+     */
+    CompletableFuture<GameState> createGame(String fen);
+
+    /**
+     * Plays {@code move}, given in UCI notation such as {@code e2e4} or {@code e7e8q}, if it is legal.
+     */
+    CompletableFuture<MoveResult> submitMove(long gameId, String move);
+
+    CompletableFuture<GameState> getState(long gameId);
+
+    /**
+     * Stops hosting a game. The returned state is the game's last.
+     */
+    CompletableFuture<GameState> endGame(long gameId);
+}
@@ -0,0 +1,187 @@
+package training.chessington.server;
+
+import training.chessington.model.Board;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hosts many games at once without a user interface. Each game belongs to one of a fixed number of
+ * event loops, each a single thread, and everything done to a game runs on its loop: a game has
+ * exactly one writer and needs no locking, and thousands of games share a handful of threads instead
+ * of holding one each. Games on different loops proceed in parallel.
+ *
+ * <p>Handlers only validate and play a move, which takes microseconds, so a loop never waits on
+ * anything and move latency stays flat however many games are hosted. Anything slow, such as an
+ * engine search, belongs on another thread, with its move submitted here when it is ready.</p>
+ */
+public class GameServer implements GameClient, AutoCloseable {
+    public static final int DEFAULT_LOOPS = Runtime.getRuntime().availableProcessors();
+
+    private final EventLoop[] loops;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextGameId = new AtomicLong(1);
+
+    public GameServer() {
+        this(DEFAULT_LOOPS);
+    }
+
+    public GameServer(int loopCount) {
+        if (loopCount < 1) {
+            throw new IllegalArgumentException("At least one event loop is needed");
+        }
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop("game-loop-" + i);
+        }
+    }
+
+    @Override
+    public CompletableFuture<GameState> createGame() {
+        return startGame(Board::forNewGame);
+    }
+
+    @Override
+    public CompletableFuture<GameState> createGame(String fen) {
+        return startGame(() -> Board.fromFen(fen));
+    }
+
+    @Override
+    public CompletableFuture<MoveResult> submitMove(long gameId, String move) {
+        return onSession(gameId, session -> session.play(move));
+    }
+
+    @Override
+    public CompletableFuture<GameState> getState(long gameId) {
+        return onSession(gameId, Session::state);
+    }
+
+    @Override
+    public CompletableFuture<GameState> endGame(long gameId) {
+        return onSession(gameId, session -> {
+            sessions.remove(gameId);
+            return session.state();
+        });
+    }
+
+    public int getActiveGames() {
+        return sessions.size();
+    }
+
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    /**
+     * Stops accepting work, lets every loop finish what is already queued and waits for them, for up
+     * to a minute each before abandoning what is left.
+     */
+    @Override
+    public void close() {
+        for (EventLoop loop : loops) {
+            loop.executor.shutdown();
+        }
+        try {
+            for (EventLoop loop : loops) {
+                if (!loop.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    loop.executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            for (EventLoop loop : loops) {
+                loop.executor.shutdownNow();
+            }
+            Thread.currentThread().interrupt();
+        }
+        sessions.clear();
+    }
+
+    private CompletableFuture<GameState> startGame(BoardFactory boardFactory) {
+        long gameId = nextGameId.getAndIncrement();
+        EventLoop loop = loops[(int) (gameId % loops.length)];
+        return CompletableFuture.supplyAsync(() -> {
+            Session session = new Session(gameId, new Game(boardFactory.create()), loop);
+            sessions.put(gameId, session);
+            return session.state();
+        }, loop.executor);
+    }
+
+    private <T> CompletableFuture<T> onSession(long gameId, Function<Session, T> action) {
+        Session session = sessions.get(gameId);
+        if (session == null) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(unknownGame(gameId));
+            return failed;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            // The game may have ended while this call was queued behind the endGame
+            if (sessions.get(gameId) != session) {
+                throw unknownGame(gameId);
+            }
+            return action.apply(session);
+        }, session.loop.executor);
+    }
+
+    private static IllegalArgumentException unknownGame(long gameId) {
+        return new IllegalArgumentException("No game " + gameId);
+    }
+
+    private interface BoardFactory {
+        Board create();
+    }
+
+    private static final class EventLoop {
+        final ExecutorService executor;
+        // Only touched on the loop's own thread
+        final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+
+        EventLoop(String name) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * One hosted game. Its methods run on its loop's thread only.
+     */
+    private static final class Session {
+        final long gameId;
+        final Game game;
+        final EventLoop loop;
+
+        Session(long gameId, Game game, EventLoop loop) {
+            this.gameId = gameId;
+            this.game = game;
+            this.loop = loop;
+        }
+
+        MoveResult play(String uci) {
+            if (game.isEnded()) {
+                return MoveResult.rejected(uci, state(), "The game is over");
+            }
+            int count = game.getLegalMoves(loop.legalMoves);
+            int move = Moves.fromUci(uci, loop.legalMoves, count);
+            if (move == Moves.NONE) {
+                return MoveResult.rejected(uci, state(), "Not a legal move");
+            }
+            game.makeMove(move);
+            return MoveResult.accepted(uci, state());
+        }
+
+        GameState state() {
+            return new GameState(gameId, game.toFen(), game.getNextPlayer(), game.getMoveCount(), game.getResult());
+        }
+    }
+}
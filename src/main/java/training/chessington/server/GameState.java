@@ -0,0 +1,54 @@
+package training.chessington.server;
+
+import training.chessington.model.PlayerColour;
+
+/**
+ * An immutable snapshot of one hosted game, safe to hand to any thread.
+ */
+public final class GameState {
+    private final long gameId;
+    private final String fen;
+    private final PlayerColour nextPlayer;
+    private final int moveCount;
+    private final String result;
+
+    GameState(long gameId, String fen, PlayerColour nextPlayer, int moveCount, String result) {
+        this.gameId = gameId;
+        this.fen = fen;
+        this.nextPlayer = nextPlayer;
+        this.moveCount = moveCount;
+        this.result = result;
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public PlayerColour getNextPlayer() {
+        return nextPlayer;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public boolean isEnded() {
+        return result != null;
+    }
+
+    /**
+     * How the game ended, or null while it is still being played.
+     */
+    public String getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Game " + gameId + ": " + fen + (result == null ? "" : " (" + result + ")");
+    }
+}
@@ -0,0 +1,56 @@
+package training.chessington.server;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link GameClient} that sends every call through {@link TextProtocol} in the same process, so
+ * that tests and tools exercise the wire format exactly as a remote client would, without a socket.
+ */
+public class LoopbackClient implements GameClient {
+    private final TextProtocol protocol;
+
+    public LoopbackClient(TextProtocol protocol) {
+        this.protocol = protocol;
+    }
+
+    @Override
+    public CompletableFuture<GameState> createGame() {
+        return request("new").thenApply(LoopbackClient::toState);
+    }
+
+    @Override
+    public CompletableFuture<GameState> createGame(String fen) {
+        return request("new", fen).thenApply(LoopbackClient::toState);
+    }
+
+    @Override
+    public CompletableFuture<MoveResult> submitMove(long gameId, String move) {
+        return request("move", String.valueOf(gameId), move).thenApply(fields -> "accepted".equals(fields[0])
+                ? MoveResult.accepted(fields[1], TextProtocol.parseState(fields, 2))
+                : MoveResult.rejected(fields[1], TextProtocol.parseState(fields, 3), fields[2]));
+    }
+
+    @Override
+    public CompletableFuture<GameState> getState(long gameId) {
+        return request("state", String.valueOf(gameId)).thenApply(LoopbackClient::toState);
+    }
+
+    @Override
+    public CompletableFuture<GameState> endGame(long gameId) {
+        return request("end", String.valueOf(gameId)).thenApply(LoopbackClient::toState);
+    }
+
+    private CompletableFuture<String[]> request(String... fields) {
+        return protocol.handle(String.join(String.valueOf(TextProtocol.SEPARATOR), fields)).thenApply(response -> {
+            String[] responseFields = response.split(String.valueOf(TextProtocol.SEPARATOR), -1);
+            if ("error".equals(responseFields[0])) {
+                throw new IllegalArgumentException(responseFields[1]);
+            }
+            return responseFields;
+        });
+    }
+
+    private static GameState toState(String[] fields) {
+        return TextProtocol.parseState(fields, 1);
+    }
+}
@@ -0,0 +1,52 @@
+package training.chessington.server;
+
+/**
+ * The answer to a submitted move: either the game after it, or why it was turned down. A rejected
+ * move leaves the game as it was.
+ */
+public final class MoveResult {
+    private final String move;
+    private final GameState state;
+    private final String rejection;
+
+    private MoveResult(String move, GameState state, String rejection) {
+        this.move = move;
+        this.state = state;
+        this.rejection = rejection;
+    }
+
+    static MoveResult accepted(String move, GameState state) {
+        return new MoveResult(move, state, null);
+    }
+
+    static MoveResult rejected(String move, GameState state, String reason) {
+        return new MoveResult(move, state, reason);
+    }
+
+    public boolean isAccepted() {
+        return rejection == null;
+    }
+
+    /**
+     * The move as submitted, in UCI notation.
+     */
+    public String getMove() {
+        return move;
+    }
+
+    /**
+     * The game after the move, or unchanged if the move was rejected.
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    public String getRejection() {
+        return rejection;
+    }
+
+    @Override
+    public String toString() {
+        return isAccepted() ? move + " accepted" : move + " rejected: " + rejection;
+    }
+}
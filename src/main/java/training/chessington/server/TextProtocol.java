@@ -0,0 +1,99 @@
+package training.chessington.server;
+
+import training.chessington.model.PlayerColour;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A line-based wire format for {@link GameClient} calls, with fields separated by tabs since FEN and
+ * results contain spaces. Requests are {@code new}, {@code new <fen>}, {@code move <id> <uci>},
+ * {@code state <id>} and {@code end <id>}. Responses are {@code state <game>},
+ * {@code accepted <uci> <game>}, {@code rejected <uci> <reason> <game>} or {@code error <message>},
+ * where a game is written as its id, side to move, move count, FEN and result, empty while playing.
+ */
+public class TextProtocol {
+    static final char SEPARATOR = '\t';
+
+    private final GameClient games;
+
+    public TextProtocol(GameClient games) {
+        this.games = games;
+    }
+
+    /**
+     * Carries out one request line. The response never completes exceptionally; failures are
+     * reported as {@code error} lines.
+     */
+    public CompletableFuture<String> handle(String request) {
+        String[] fields = request.split(String.valueOf(SEPARATOR), -1);
+        CompletableFuture<String> response;
+        try {
+            response = dispatch(fields);
+        } catch (IllegalArgumentException e) {
+            response = CompletableFuture.completedFuture(error(e));
+        }
+        return response.exceptionally(TextProtocol::error);
+    }
+
+    private CompletableFuture<String> dispatch(String[] fields) {
+        switch (fields[0]) {
+            case "new":
+                return (fields.length > 1 ? games.createGame(fields[1]) : games.createGame()).thenApply(TextProtocol::formatState);
+            case "move":
+                expectFields(fields, 3);
+                return games.submitMove(parseId(fields[1]), fields[2]).thenApply(TextProtocol::formatResult);
+            case "state":
+                expectFields(fields, 2);
+                return games.getState(parseId(fields[1])).thenApply(TextProtocol::formatState);
+            case "end":
+                expectFields(fields, 2);
+                return games.endGame(parseId(fields[1])).thenApply(TextProtocol::formatState);
+            default:
+                throw new IllegalArgumentException("Unknown request '" + fields[0] + "'");
+        }
+    }
+
+    static String formatState(GameState state) {
+        return "state" + SEPARATOR + formatGame(state);
+    }
+
+    static String formatResult(MoveResult result) {
+        return result.isAccepted()
+                ? "accepted" + SEPARATOR + result.getMove() + SEPARATOR + formatGame(result.getState())
+                : "rejected" + SEPARATOR + result.getMove() + SEPARATOR + result.getRejection() + SEPARATOR
+                + formatGame(result.getState());
+    }
+
+    static GameState parseState(String[] fields, int offset) {
+        String result = fields[offset + 4];
+        return new GameState(Long.parseLong(fields[offset]), fields[offset + 3],
+                PlayerColour.valueOf(fields[offset + 1]), Integer.parseInt(fields[offset + 2]),
+                result.isEmpty() ? null : result);
+    }
+
+    private static String formatGame(GameState state) {
+        return String.valueOf(state.getGameId()) + SEPARATOR + state.getNextPlayer() + SEPARATOR
+                + state.getMoveCount() + SEPARATOR + state.getFen() + SEPARATOR
+                + (state.isEnded() ? state.getResult() : "");
+    }
+
+    private static String error(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return "error" + SEPARATOR + cause.getMessage();
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("'" + fields[0] + "' takes " + (count - 1) + " arguments");
+        }
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid game id '" + id + "'");
+        }
+    }
+}
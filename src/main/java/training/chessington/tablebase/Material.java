@@ -0,0 +1,242 @@
+package training.chessington.tablebase;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The pieces of one endgame, such as {@code KQvK}: white's pieces, then {@code v}, then black's, each
+ * side's king first and the rest from most to least valuable. A position of the endgame is numbered by
+ * the squares of its pieces, in that order, and the side to move, which gives {@code 2 * 64^n} indices
+ * for {@code n} pieces. Squares that clash or pawns on a back rank simply make invalid indices.
+ */
+final class Material {
+    static final int MAX_PIECES = 4;
+
+    private static final String LETTERS = "PNBRQK";
+    private static final Piece.PieceType[] BY_VALUE = {
+            Piece.PieceType.KING, Piece.PieceType.QUEEN, Piece.PieceType.ROOK,
+            Piece.PieceType.BISHOP, Piece.PieceType.KNIGHT, Piece.PieceType.PAWN
+    };
+
+    private final PlayerColour[] colours;
+    private final Piece.PieceType[] types;
+    private final long key;
+
+    private Material(PlayerColour[] colours, Piece.PieceType[] types) {
+        this.colours = colours;
+        this.types = types;
+        long key = 0;
+        for (int i = 0; i < types.length; i++) {
+            key += 1L << shift(colours[i], types[i]);
+        }
+        this.key = key;
+    }
+
+    static Material parse(String name) {
+        int separator = name.indexOf('v');
+        if (separator < 0 || !name.startsWith("K") || separator + 1 >= name.length() || name.charAt(separator + 1) != 'K') {
+            throw new IllegalArgumentException("Endgame must be written like KQvK: " + name);
+        }
+        List<PlayerColour> colours = new ArrayList<>();
+        List<Piece.PieceType> types = new ArrayList<>();
+        for (int i = 0; i < name.length(); i++) {
+            if (i == separator) {
+                continue;
+            }
+            int type = LETTERS.indexOf(name.charAt(i));
+            if (type < 0 || i > 0 && i != separator + 1 && type == Piece.PieceType.KING.ordinal()) {
+                throw new IllegalArgumentException("Invalid piece '" + name.charAt(i) + "' in " + name);
+            }
+            colours.add(i < separator ? PlayerColour.WHITE : PlayerColour.BLACK);
+            types.add(Piece.PieceType.values()[type]);
+        }
+        if (types.size() > MAX_PIECES) {
+            throw new IllegalArgumentException("Endgames of at most " + MAX_PIECES + " pieces are supported: " + name);
+        }
+        return of(colours.toArray(new PlayerColour[0]), types.toArray(new Piece.PieceType[0]));
+    }
+
+    /**
+     * The material on {@code board}, which must have one king of each colour.
+     */
+    static Material of(Board board) {
+        List<PlayerColour> colours = new ArrayList<>();
+        List<Piece.PieceType> types = new ArrayList<>();
+        for (PlayerColour colour : PlayerColour.values()) {
+            for (Piece.PieceType type : BY_VALUE) {
+                for (int i = Bitboards.count(board.getPieces(colour, type)); i > 0; i--) {
+                    colours.add(colour);
+                    types.add(type);
+                }
+            }
+        }
+        return new Material(colours.toArray(new PlayerColour[0]), types.toArray(new Piece.PieceType[0]));
+    }
+
+    /**
+     * A key that is equal for two boards exactly when their material is, without building a Material.
+     */
+    static long keyOf(Board board) {
+        long key = 0;
+        for (PlayerColour colour : PlayerColour.values()) {
+            for (Piece.PieceType type : BY_VALUE) {
+                key += (long) Bitboards.count(board.getPieces(colour, type)) << shift(colour, type);
+            }
+        }
+        return key;
+    }
+
+    private static Material of(PlayerColour[] colours, Piece.PieceType[] types) {
+        Integer[] order = new Integer[types.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> colours[a] != colours[b]
+                ? colours[a].compareTo(colours[b])
+                : rank(types[a]) - rank(types[b]));
+        PlayerColour[] sortedColours = new PlayerColour[types.length];
+        Piece.PieceType[] sortedTypes = new Piece.PieceType[types.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedColours[i] = colours[order[i]];
+            sortedTypes[i] = types[order[i]];
+        }
+        return new Material(sortedColours, sortedTypes);
+    }
+
+    private static int rank(Piece.PieceType type) {
+        for (int i = 0; i < BY_VALUE.length; i++) {
+            if (BY_VALUE[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.valueOf(type));
+    }
+
+    private static int shift(PlayerColour colour, Piece.PieceType type) {
+        return (colour.ordinal() * 6 + type.ordinal()) * 4;
+    }
+
+    int size() {
+        return types.length;
+    }
+
+    PlayerColour colour(int slot) {
+        return colours[slot];
+    }
+
+    Piece.PieceType type(int slot) {
+        return types[slot];
+    }
+
+    long key() {
+        return key;
+    }
+
+    int indexCount() {
+        return 2 << (6 * types.length);
+    }
+
+    /**
+     * The same endgame with the colours swapped.
+     */
+    Material mirrored() {
+        PlayerColour[] swapped = new PlayerColour[colours.length];
+        for (int i = 0; i < colours.length; i++) {
+            swapped[i] = colours[i].opponent();
+        }
+        return of(swapped, types);
+    }
+
+    /**
+     * Of this endgame and its mirror image, the one that tables are generated for: the side with more
+     * or stronger pieces plays white.
+     */
+    Material canonical() {
+        Material mirrored = mirrored();
+        return compareSides(PlayerColour.WHITE) >= compareSides(PlayerColour.BLACK) ? this : mirrored;
+    }
+
+    private int compareSides(PlayerColour colour) {
+        int score = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (colours[i] == colour) {
+                score += 1000 + (BY_VALUE.length - rank(types[i]));
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The endgame left after the piece in {@code slot} is captured.
+     */
+    Material without(int slot) {
+        return replace(slot, null);
+    }
+
+    /**
+     * The endgame after the pawn in {@code slot} promotes to {@code type}.
+     */
+    Material promoted(int slot, Piece.PieceType type) {
+        return replace(slot, type);
+    }
+
+    private Material replace(int slot, Piece.PieceType type) {
+        List<PlayerColour> colours = new ArrayList<>();
+        List<Piece.PieceType> types = new ArrayList<>();
+        for (int i = 0; i < this.types.length; i++) {
+            if (i != slot || type != null) {
+                colours.add(this.colours[i]);
+                types.add(i == slot ? type : this.types[i]);
+            }
+        }
+        return of(colours.toArray(new PlayerColour[0]), types.toArray(new Piece.PieceType[0]));
+    }
+
+    /**
+     * The index of {@code board}'s position, which must have this material; with {@code mirrored}, the
+     * index of its mirror image, with colours swapped and the board turned upside down.
+     */
+    int indexOf(Board board, boolean mirrored) {
+        int index = 0;
+        long taken = 0;
+        int multiplier = 1;
+        for (int slot = 0; slot < types.length; slot++) {
+            PlayerColour colour = mirrored ? colours[slot].opponent() : colours[slot];
+            long candidates = board.getPieces(colour, types[slot]) & ~taken;
+            int square = Bitboards.first(candidates);
+            taken |= Bitboards.bit(square);
+            index += (mirrored ? square ^ 56 : square) * multiplier;
+            multiplier <<= 6;
+        }
+        PlayerColour sideToMove = mirrored ? board.getSideToMove().opponent() : board.getSideToMove();
+        return index + sideToMove.ordinal() * multiplier;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Material && ((Material) other).key == key;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0 && colours[i] != colours[i - 1]) {
+                name.append('v');
+            }
+            name.append(LETTERS.charAt(types[i].ordinal()));
+        }
+        return name.toString();
+    }
+}
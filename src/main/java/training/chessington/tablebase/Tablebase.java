@@ -0,0 +1,156 @@
+package training.chessington.tablebase;
+
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.CastlingRights;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Distance-to-mate tables for endgames of up to {@link Material#MAX_PIECES} pieces, as written by
+ * {@link TablebaseGenerator}. Each table is memory-mapped and holds one byte per position:
+ * 0 for a draw, {@code n > 0} when the side to move mates in {@code n} plies, and {@code -n - 1} when
+ * it is mated in {@code n} plies, so -1 is checkmate. {@link #probe} returns that value, or
+ * {@link #NOT_FOUND}. An endgame's mirror image, with the colours swapped, is read from the same table.
+ *
+ * <p>Tables hold no castling or en passant rights, so positions with either are never found: an en
+ * passant capture is a move the table's value does not account for. Probes do not change any state
+ * and may run on any number of threads.</p>
+ */
+public class Tablebase {
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+    public static final String EXTENSION = ".ctb";
+
+    static final byte INVALID = Byte.MIN_VALUE;
+    static final int MAGIC = 0x43544231;
+    static final int HEADER_BYTES = 8;
+
+    private volatile Table[] tables = new Table[0];
+    private volatile int maxPieces = 2;
+
+    /**
+     * Maps every table in {@code directory}.
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                tablebase.load(file);
+            }
+        }
+        return tablebase;
+    }
+
+    static Path fileFor(Path directory, Material material) {
+        return directory.resolve(material + EXTENSION);
+    }
+
+    void load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Material material = Material.parse(name.substring(0, name.length() - EXTENSION.length()));
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.capacity() != HEADER_BYTES + material.indexCount()
+                || data.getInt(0) != MAGIC || data.getInt(4) != material.indexCount()) {
+            throw new IOException("Not a " + material + " table: " + file);
+        }
+
+        synchronized (this) {
+            Table[] grown = Arrays.copyOf(tables, tables.length + 1);
+            grown[tables.length] = new Table(material, data);
+            tables = grown;
+            maxPieces = Math.max(maxPieces, material.size());
+        }
+    }
+
+    public boolean contains(String endgame) {
+        return find(Material.parse(endgame).key()) != null;
+    }
+
+    public Set<String> getEndgames() {
+        Set<String> endgames = new TreeSet<>();
+        for (Table table : tables) {
+            endgames.add(table.material.toString());
+        }
+        return endgames;
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * The distance to mate of {@code board}'s position as described above, or {@link #NOT_FOUND} if
+     * no table covers it. Bare kings are always a draw.
+     */
+    public int probe(Board board) {
+        int pieces = Bitboards.count(board.getOccupied());
+        if (pieces > maxPieces
+                || board.getCastlingRights() != CastlingRights.NONE
+                || board.getEnPassantSquare() != Board.NO_SQUARE) {
+            return NOT_FOUND;
+        }
+        if (pieces == 2) {
+            return 0;
+        }
+
+        long key = Material.keyOf(board);
+        Table table = find(key);
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        int index = table.material.indexOf(board, table.key != key);
+        byte value = table.data.get(HEADER_BYTES + index);
+        return value == INVALID ? NOT_FOUND : value;
+    }
+
+    public static boolean isWin(int value) {
+        return value > 0;
+    }
+
+    public static boolean isLoss(int value) {
+        return value < 0 && value != NOT_FOUND;
+    }
+
+    /**
+     * The plies until mate of a won or lost position.
+     */
+    public static int pliesToMate(int value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    private Table find(long key) {
+        for (Table table : tables) {
+            if (table.key == key || table.mirroredKey == key) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private static final class Table {
+        final Material material;
+        final long key;
+        final long mirroredKey;
+        final ByteBuffer data;
+
+        Table(Material material, ByteBuffer data) {
+            this.material = material;
+            this.key = material.key();
+            this.mirroredKey = material.mirrored().key();
+            this.data = data;
+        }
+    }
+}
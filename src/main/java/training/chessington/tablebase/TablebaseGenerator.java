@@ -0,0 +1,545 @@
+package training.chessington.tablebase;
+
+import training.chessington.model.AttackTables;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds {@link Tablebase} tables by retrograde analysis. A first pass sets up every position of the
+ * endgame on a {@link Board}, marks the invalid ones, counts the legal moves of the rest and looks up
+ * the moves that leave the endgame, captures and promotions, in the smaller tables, which are
+ * generated first. From the checkmates on, each further pass then walks moves backwards from the
+ * positions decided in the pass before: a position with a move to a lost one is won, and one whose
+ * every move reaches a won one is lost. Positions still undecided when no pass finds any more are
+ * draws.
+ *
+ * <p>A double push that can be answered en passant leads to a position the tables do not hold, since
+ * they have no en passant rights. Each such position is analysed alongside the table as a position of
+ * its own, so that the moves into it are valued correctly, and dropped when the table is written.</p>
+ *
+ * <p>Both kinds of pass are split into chunks that run on all threads; the backward pass only
+ * collects predecessors in parallel and applies them in order, so the tables do not depend on
+ * scheduling. Usage: {@code TablebaseGenerator <directory> <endgame>...}, for example
+ * {@code TablebaseGenerator tables KQvK KRvK KPvK}.</p>
+ */
+public class TablebaseGenerator {
+    private static final byte UNKNOWN = Byte.MAX_VALUE;
+    private static final int MAX_PLIES = 125;
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final Piece.PieceType[] PROMOTIONS = {
+            Piece.PieceType.QUEEN, Piece.PieceType.ROOK, Piece.PieceType.BISHOP, Piece.PieceType.KNIGHT
+    };
+
+    private final Path directory;
+    private final int threads;
+    private final Tablebase tablebase;
+
+    public TablebaseGenerator(Path directory, int threads) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.threads = threads;
+        this.tablebase = Tablebase.open(directory);
+    }
+
+    /**
+     * The tables in the directory, including every one generated so far.
+     */
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    /**
+     * Generates the table for {@code endgame}, such as {@code KRvK}, and for every endgame it can turn
+     * into, skipping those already in the directory. Returns the endgames generated, smallest first.
+     */
+    public List<String> generate(String endgame) throws IOException, InterruptedException {
+        List<String> generated = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tablebase-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            generate(Material.parse(endgame).canonical(), pool, generated);
+        } finally {
+            pool.shutdownNow();
+        }
+        return generated;
+    }
+
+    private void generate(Material material, ExecutorService pool, List<String> generated)
+            throws IOException, InterruptedException {
+        if (material.size() <= 2 || tablebase.contains(material.toString())) {
+            return;
+        }
+        for (int slot = 0; slot < material.size(); slot++) {
+            if (material.type(slot) != Piece.PieceType.KING) {
+                generate(material.without(slot).canonical(), pool, generated);
+            }
+            if (material.type(slot) == Piece.PieceType.PAWN) {
+                for (Piece.PieceType promotion : PROMOTIONS) {
+                    generate(material.promoted(slot, promotion).canonical(), pool, generated);
+                }
+            }
+        }
+
+        byte[] values = new Generation(material, pool).run();
+        Path file = Tablebase.fileFor(directory, material);
+        write(file, values);
+        tablebase.load(file);
+        generated.add(material.toString());
+    }
+
+    private static void write(Path file, byte[] values) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES);
+            header.putInt(Tablebase.MAGIC).putInt(values.length).flip();
+            ByteBuffer body = ByteBuffer.wrap(values);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The working state of one table while it is generated.
+     */
+    private final class Generation {
+        private final Material material;
+        private final ExecutorService pool;
+        private final int indexCount;
+        private final int sideToMoveBit;
+        // Indexed by position, then by en passant position from indexCount on
+        private byte[] values;
+        // Legal moves not yet known to lose, as an unsigned byte
+        private byte[] remaining;
+        // The position each en passant position adds its right to, ascending, and the square passed
+        private int[] enPassantBases = new int[0];
+        private int[] enPassantSquares = new int[0];
+
+        Generation(Material material, ExecutorService pool) {
+            this.material = material;
+            this.pool = pool;
+            this.indexCount = material.indexCount();
+            this.values = new byte[indexCount];
+            this.remaining = new byte[indexCount];
+            this.sideToMoveBit = indexCount >>> 1;
+        }
+
+        byte[] run() throws InterruptedException {
+            Events events = new Events();
+            for (Events chunk : inChunks(indexCount, this::initialise)) {
+                events.addAll(chunk);
+            }
+
+            int enPassantCount = events.enPassant.size() / 2;
+            enPassantBases = new int[enPassantCount];
+            enPassantSquares = new int[enPassantCount];
+            for (int i = 0; i < enPassantCount; i++) {
+                enPassantBases[i] = events.enPassant.get(2 * i);
+                enPassantSquares[i] = events.enPassant.get(2 * i + 1);
+            }
+            values = Arrays.copyOf(values, indexCount + enPassantCount);
+            remaining = Arrays.copyOf(remaining, indexCount + enPassantCount);
+            for (Events chunk : inChunks(enPassantCount, this::initialiseEnPassant)) {
+                events.addAll(chunk);
+            }
+
+            IntList frontier = events.mates;
+            for (int plies = 1; !frontier.isEmpty() || events.anyFrom(plies); plies++) {
+                if (plies > MAX_PLIES) {
+                    throw new IllegalStateException(material + " has mates longer than " + MAX_PLIES + " plies");
+                }
+                IntList decided = new IntList();
+                IntList current = frontier;
+                for (IntList predecessors : inChunks(current.size(), (start, end) -> predecessors(current, start, end))) {
+                    decide(predecessors, plies, decided);
+                }
+                decide(events.wins[plies], plies, decided);
+                decide(events.losses[plies], plies, decided);
+                frontier = decided;
+            }
+
+            for (int i = 0; i < indexCount; i++) {
+                if (values[i] == UNKNOWN) {
+                    values[i] = 0;
+                }
+            }
+            return Arrays.copyOf(values, indexCount);
+        }
+
+        /**
+         * Applies the positions that have a move to one decided {@code plies - 1} plies from mate.
+         * If those were lost, each such position is won; if they were won, it has one fewer move left
+         * that might save it.
+         */
+        private void decide(IntList positions, int plies, IntList decided) {
+            boolean winning = plies % 2 == 1;
+            for (int i = 0; i < positions.size(); i++) {
+                int index = positions.get(i);
+                if (values[index] != UNKNOWN) {
+                    continue;
+                }
+                if (winning) {
+                    values[index] = (byte) plies;
+                    decided.add(index);
+                } else {
+                    int left = (remaining[index] & 0xFF) - 1;
+                    remaining[index] = (byte) left;
+                    if (left == 0) {
+                        values[index] = (byte) (-plies - 1);
+                        decided.add(index);
+                    }
+                }
+            }
+        }
+
+        private Events initialise(int start, int end) {
+            Events events = new Events();
+            Board board = Board.empty();
+            int[] squares = new int[material.size()];
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+            for (int index = start; index < end; index++) {
+                PlayerColour sideToMove = decode(index, squares);
+                if (sideToMove == null) {
+                    values[index] = Tablebase.INVALID;
+                    continue;
+                }
+                setUp(board, squares, sideToMove);
+                if (board.isInCheck(sideToMove.opponent())) {
+                    values[index] = Tablebase.INVALID;
+                    continue;
+                }
+                analyse(board, index, moves, events);
+                findEnPassant(index, squares, sideToMove, events);
+            }
+            return events;
+        }
+
+        private Events initialiseEnPassant(int start, int end) {
+            Events events = new Events();
+            Board board = Board.empty();
+            int[] squares = new int[material.size()];
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+            for (int i = start; i < end; i++) {
+                setUp(board, squares, decode(enPassantBases[i], squares));
+                board.setEnPassantSquare(enPassantSquares[i]);
+                analyse(board, indexCount + i, moves, events);
+            }
+            return events;
+        }
+
+        private void setUp(Board board, int[] squares, PlayerColour sideToMove) {
+            board.clear();
+            for (int slot = 0; slot < squares.length; slot++) {
+                board.placePiece(squares[slot], Pieces.of(material.type(slot), material.colour(slot)));
+            }
+            board.setSideToMove(sideToMove);
+        }
+
+        private void analyse(Board board, int index, int[] moves, Events events) {
+            int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+            if (count == 0) {
+                values[index] = board.isInCheck(board.getSideToMove()) ? (byte) -1 : 0;
+                if (values[index] == -1) {
+                    events.mates.add(index);
+                }
+                return;
+            }
+            values[index] = UNKNOWN;
+            remaining[index] = (byte) count;
+            for (int i = 0; i < count; i++) {
+                if (Moves.isCapture(moves[i]) || Moves.isPromotion(moves[i])) {
+                    leaveEndgame(board, moves[i], index, events);
+                }
+            }
+        }
+
+        /**
+         * Records the en passant positions of a valid position: one for each pawn of the side not to
+         * move that could just have pushed two squares past a pawn able to take it.
+         */
+        private void findEnPassant(int index, int[] squares, PlayerColour sideToMove, Events events) {
+            PlayerColour pusher = sideToMove.opponent();
+            long occupied = occupied(squares);
+            long capturers = pawns(squares, sideToMove);
+            for (int slot = 0; slot < squares.length; slot++) {
+                if (material.type(slot) != Piece.PieceType.PAWN || material.colour(slot) != pusher) {
+                    continue;
+                }
+                int back = pusher == PlayerColour.WHITE ? 8 : -8;
+                int passed = squares[slot] + back;
+                if (isDoublePush(pusher, squares[slot], occupied)
+                        && (AttackTables.pawnAttacks(pusher, passed) & capturers) != 0) {
+                    events.enPassant.add(index);
+                    events.enPassant.add(passed);
+                }
+            }
+        }
+
+        /**
+         * Schedules the effect of a move into a smaller endgame, whose value is already known, for
+         * the pass that reaches its distance.
+         */
+        private void leaveEndgame(Board board, int move, int index, Events events) {
+            board.makeMove(move);
+            int value = tablebase.probe(board);
+            board.unmakeMove();
+            if (value == Tablebase.NOT_FOUND) {
+                throw new IllegalStateException("No table for the position after " + Moves.toUci(move)
+                        + " in " + board.toFen());
+            }
+            if (Tablebase.isLoss(value)) {
+                events.wins[Tablebase.pliesToMate(value) + 1].add(index);
+            } else if (Tablebase.isWin(value)) {
+                events.losses[Tablebase.pliesToMate(value) + 1].add(index);
+            }
+        }
+
+        private IntList predecessors(IntList positions, int start, int end) {
+            IntList predecessors = new IntList();
+            int[] squares = new int[material.size()];
+            for (int i = start; i < end; i++) {
+                int index = positions.get(i);
+                if (index >= indexCount) {
+                    enPassantPredecessor(index - indexCount, squares, predecessors);
+                    continue;
+                }
+                PlayerColour mover = decode(index, squares).opponent();
+                long occupied = occupied(squares);
+                long capturers = pawns(squares, mover.opponent());
+                int multiplier = 1;
+                for (int slot = 0; slot < squares.length; slot++, multiplier <<= 6) {
+                    if (material.colour(slot) != mover) {
+                        continue;
+                    }
+                    int base = (index ^ sideToMoveBit) - squares[slot] * multiplier;
+                    for (long origins = origins(material.type(slot), mover, squares[slot], occupied, capturers);
+                         origins != 0; origins = Bitboards.withoutFirst(origins)) {
+                        addWithEnPassant(base + Bitboards.first(origins) * multiplier, predecessors);
+                    }
+                }
+            }
+            return predecessors;
+        }
+
+        /**
+         * Adds the one position whose double push leads to the en passant position {@code enPassant}.
+         */
+        private void enPassantPredecessor(int enPassant, int[] squares, IntList predecessors) {
+            int index = enPassantBases[enPassant];
+            int passed = enPassantSquares[enPassant];
+            PlayerColour pusher = decode(index, squares).opponent();
+            int back = pusher == PlayerColour.WHITE ? 8 : -8;
+            int multiplier = 1;
+            for (int slot = 0; slot < squares.length; slot++, multiplier <<= 6) {
+                if (material.type(slot) == Piece.PieceType.PAWN && material.colour(slot) == pusher
+                        && squares[slot] + back == passed) {
+                    addWithEnPassant((index ^ sideToMoveBit) + 2 * back * multiplier, predecessors);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Adds {@code index} and its en passant positions, which have the same moves and more.
+         */
+        private void addWithEnPassant(int index, IntList predecessors) {
+            predecessors.add(index);
+            int low = 0;
+            int high = enPassantBases.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (enPassantBases[middle] < index) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low; i < enPassantBases.length && enPassantBases[i] == index; i++) {
+                predecessors.add(indexCount + i);
+            }
+        }
+
+        private long occupied(int[] squares) {
+            long occupied = 0;
+            for (int square : squares) {
+                occupied |= Bitboards.bit(square);
+            }
+            return occupied;
+        }
+
+        private long pawns(int[] squares, PlayerColour colour) {
+            long pawns = 0;
+            for (int slot = 0; slot < squares.length; slot++) {
+                if (material.type(slot) == Piece.PieceType.PAWN && material.colour(slot) == colour) {
+                    pawns |= Bitboards.bit(squares[slot]);
+                }
+            }
+            return pawns;
+        }
+
+        /**
+         * The squares a piece now on {@code square} could have come from without capturing, promoting
+         * or giving one of {@code capturers} an en passant capture.
+         */
+        private long origins(Piece.PieceType type, PlayerColour colour, int square, long occupied, long capturers) {
+            long empty = ~occupied;
+            switch (type) {
+                case KING:
+                    return AttackTables.kingAttacks(square) & empty;
+                case KNIGHT:
+                    return AttackTables.knightAttacks(square) & empty;
+                case BISHOP:
+                    return AttackTables.bishopAttacks(square, occupied) & empty;
+                case ROOK:
+                    return AttackTables.rookAttacks(square, occupied) & empty;
+                case QUEEN:
+                    return AttackTables.queenAttacks(square, occupied) & empty;
+                default:
+                    return pawnOrigins(colour, square, occupied, capturers);
+            }
+        }
+
+        private long pawnOrigins(PlayerColour colour, int square, long occupied, long capturers) {
+            // White pawns move towards row 0, so they came from the row below; none stand on a back rank
+            int back = colour == PlayerColour.WHITE ? 8 : -8;
+            int row = Bitboards.row(square + back);
+            if (row == 0 || row == 7 || Bitboards.contains(occupied, square + back)) {
+                return 0;
+            }
+            long origins = Bitboards.bit(square + back);
+            // A double push past a capturer leads to the en passant position instead
+            if (isDoublePush(colour, square, occupied)
+                    && (AttackTables.pawnAttacks(colour, square + back) & capturers) == 0) {
+                origins |= Bitboards.bit(square + 2 * back);
+            }
+            return origins;
+        }
+
+        /**
+         * Whether a pawn now on {@code square} could have got there by pushing two squares.
+         */
+        private boolean isDoublePush(PlayerColour colour, int square, long occupied) {
+            int back = colour == PlayerColour.WHITE ? 8 : -8;
+            int startRow = colour == PlayerColour.WHITE ? 6 : 1;
+            int origin = square + 2 * back;
+            return origin >= 0 && origin < 64 && Bitboards.row(origin) == startRow
+                    && !Bitboards.contains(occupied, square + back) && !Bitboards.contains(occupied, origin);
+        }
+
+        /**
+         * Fills in the squares of the position at {@code index} and returns its side to move, or null
+         * if two pieces share a square or a pawn stands on a back rank.
+         */
+        private PlayerColour decode(int index, int[] squares) {
+            long occupied = 0;
+            for (int slot = 0; slot < squares.length; slot++) {
+                int square = (index >>> (6 * slot)) & 63;
+                long bit = Bitboards.bit(square);
+                int row = Bitboards.row(square);
+                if ((occupied & bit) != 0 || material.type(slot) == Piece.PieceType.PAWN && (row == 0 || row == 7)) {
+                    return null;
+                }
+                occupied |= bit;
+                squares[slot] = square;
+            }
+            return (index & sideToMoveBit) == 0 ? PlayerColour.WHITE : PlayerColour.BLACK;
+        }
+
+        private <T> List<T> inChunks(int count, ChunkTask<T> task) throws InterruptedException {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int start = 0; start < count; start += CHUNK_SIZE) {
+                int chunkStart = start;
+                int chunkEnd = Math.min(count, start + CHUNK_SIZE);
+                futures.add(pool.submit(() -> task.run(chunkStart, chunkEnd)));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            try {
+                for (Future<T> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generating " + material + " failed", e.getCause());
+            }
+            return results;
+        }
+    }
+
+    private interface ChunkTask<T> {
+        T run(int start, int end);
+    }
+
+    /**
+     * Positions decided by moves out of the endgame, by the pass that applies them.
+     */
+    private static final class Events {
+        final IntList mates = new IntList();
+        // Pairs of a position and the square passed by a double push into it
+        final IntList enPassant = new IntList();
+        final IntList[] wins = new IntList[MAX_PLIES + 2];
+        final IntList[] losses = new IntList[MAX_PLIES + 2];
+
+        Events() {
+            for (int plies = 0; plies < wins.length; plies++) {
+                wins[plies] = new IntList();
+                losses[plies] = new IntList();
+            }
+        }
+
+        void addAll(Events other) {
+            mates.addAll(other.mates);
+            enPassant.addAll(other.enPassant);
+            for (int plies = 0; plies < wins.length; plies++) {
+                wins[plies].addAll(other.wins[plies]);
+                losses[plies].addAll(other.losses[plies]);
+            }
+        }
+
+        boolean anyFrom(int plies) {
+            for (int i = plies; i < wins.length; i++) {
+                if (!wins[i].isEmpty() || !losses[i].isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <endgame>...");
+            System.exit(2);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(Paths.get(args[0]), Runtime.getRuntime().availableProcessors());
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            List<String> generated = generator.generate(args[i]);
+            System.out.printf("%s: generated %s in %.1f s%n", args[i], generated, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
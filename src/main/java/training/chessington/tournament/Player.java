@@ -0,0 +1,46 @@
+package training.chessington.tournament;
+
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+
+import java.util.function.Supplier;
+
+/**
+ * One side of a match: a name for the PGN output and a way to create the engine it plays with.
+ * Every thread of a tournament creates its own engine, so the factory must return a new one each time.
+ */
+public final class Player {
+    private final String name;
+    private final Supplier<Search> engine;
+    private final int maxDepth;
+
+    public Player(String name, Supplier<Search> engine) {
+        this(name, engine, SearchLimits.MAX_DEPTH);
+    }
+
+    /**
+     * A player whose searches stop at {@code maxDepth} even when there is time left, to handicap it.
+     */
+    public Player(String name, Supplier<Search> engine, int maxDepth) {
+        this.name = name;
+        this.engine = engine;
+        this.maxDepth = maxDepth;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Search createEngine() {
+        return engine.get();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,83 @@
+package training.chessington.tournament;
+
+/**
+ * A sequential probability ratio test between two hypotheses about the first player's strength: that
+ * it is {@code elo0} better than the second (H0), or {@code elo1} better (H1). After each game the
+ * log-likelihood ratio of the results so far is compared with bounds set by the accepted error rates;
+ * crossing either ends the match early. The ratio uses the usual normal approximation of the score.
+ */
+public final class Sprt {
+    public enum Verdict {
+        CONTINUE, H0_ACCEPTED, H1_ACCEPTED
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("SPRT needs elo0 < elo1 and error rates between 0 and 1");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * A test of {@code elo0} against {@code elo1} with 5% false positives and false negatives.
+     */
+    public Sprt(double elo0, double elo1) {
+        this(elo0, elo1, 0.05, 0.05);
+    }
+
+    public double getElo0() {
+        return elo0;
+    }
+
+    public double getElo1() {
+        return elo1;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public double logLikelihoodRatio(long wins, long draws, long losses) {
+        if (wins + draws + losses == 0) {
+            return 0;
+        }
+        // Until every outcome has been seen the variance could be zero, so each count starts from half a game
+        double w = wins + 0.5;
+        double d = draws + 0.5;
+        double l = losses + 0.5;
+        double games = w + d + l;
+        double score = (w + d * 0.5) / games;
+        double variance = (w * square(1 - score) + d * square(0.5 - score) + l * square(score)) / games;
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+    }
+
+    public Verdict verdict(long wins, long draws, long losses) {
+        double ratio = logLikelihoodRatio(wins, draws, losses);
+        if (ratio >= upperBound) {
+            return Verdict.H1_ACCEPTED;
+        }
+        return ratio <= lowerBound ? Verdict.H0_ACCEPTED : Verdict.CONTINUE;
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double square(double x) {
+        return x * x;
+    }
+}
@@ -0,0 +1,56 @@
+package training.chessington.tournament;
+
+/**
+ * A per-game clock: each side starts with the base time and gains the increment after every move.
+ * Written as in PGN's TimeControl tag, in seconds, such as {@code 10+0.1}.
+ */
+public final class TimeControl {
+    // Spread the clock as if this many moves remained, whatever the move number
+    private static final int MOVES_TO_GO = 30;
+
+    private final long baseMillis;
+    private final long incrementMillis;
+
+    public TimeControl(long baseMillis, long incrementMillis) {
+        if (baseMillis <= 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Time control needs a positive base time and no negative increment");
+        }
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    public static TimeControl parse(String text) {
+        int plus = text.indexOf('+');
+        try {
+            double base = Double.parseDouble(plus < 0 ? text : text.substring(0, plus));
+            double increment = plus < 0 ? 0 : Double.parseDouble(text.substring(plus + 1));
+            return new TimeControl(Math.round(base * 1000), Math.round(increment * 1000));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Time control must be written like 10+0.1: " + text, e);
+        }
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * The time to give a search when {@code remainingMillis} are left on the clock.
+     */
+    public long moveTimeMillis(long remainingMillis) {
+        return Math.max(1, Math.min(remainingMillis / 2, remainingMillis / MOVES_TO_GO + incrementMillis));
+    }
+
+    @Override
+    public String toString() {
+        return seconds(baseMillis) + "+" + seconds(incrementMillis);
+    }
+
+    private static String seconds(long millis) {
+        return millis % 1000 == 0 ? Long.toString(millis / 1000) : Double.toString(millis / 1000.0);
+    }
+}
@@ -0,0 +1,381 @@
+package training.chessington.tournament;
+
+import training.chessington.book.OpeningBook;
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.engine.SearchResult;
+import training.chessington.engine.TranspositionTable;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+import training.chessington.pgn.PgnGame;
+import training.chessington.pgn.PgnWriter;
+import training.chessington.pgn.San;
+import training.chessington.tablebase.Tablebase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a match between two engines, one game per thread at a time. Each opening is played twice,
+ * once with each player as white, and games keep their own clocks under the time control. Finished
+ * games go to the PGN output and the listeners as they come in, in the order they finish, and a
+ * match with an {@link Sprt} stops as soon as the test is decided.
+ *
+ * <p>Games end by the rules of {@link Game}, on time, or as drawn after {@link #MAX_PLIES}. With a
+ * tablebase they are also adjudicated as soon as they reach a position it covers.</p>
+ */
+public class Tournament {
+    public static final int MAX_PLIES = 400;
+    public static final String EVENT = "Chessington tournament";
+
+    private final Player first;
+    private final Player second;
+    private final TimeControl timeControl;
+    private final List<String> openings;
+    private final int threads;
+    private final List<TournamentListener> listeners = new CopyOnWriteArrayList<>();
+    private Sprt sprt;
+    private Tablebase tablebase;
+    private PgnWriter pgn;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private volatile boolean stopped;
+    private long wins;
+    private long draws;
+    private long losses;
+    private long start;
+
+    /**
+     * A match on the given FEN or EPD openings; only the first four fields of each are used.
+     */
+    public Tournament(Player first, Player second, TimeControl timeControl, List<String> openings, int threads) {
+        if (openings.isEmpty() || threads < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one opening and one thread");
+        }
+        this.first = first;
+        this.second = second;
+        this.timeControl = timeControl;
+        this.openings = new ArrayList<>(openings.size());
+        for (String opening : openings) {
+            String position = positionOf(opening);
+            Fen.parse(position);
+            this.openings.add(position);
+        }
+        this.threads = threads;
+    }
+
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public void setPgnOutput(PgnWriter pgn) {
+        this.pgn = pgn;
+    }
+
+    public void addListener(TournamentListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Makes the running match finish the games in progress and start no more.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Plays up to {@code games} games and returns the final standings.
+     */
+    public TournamentStats play(int games) throws InterruptedException {
+        start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tournament-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(workers.submit(() -> {
+                    playAll(games);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            stopped = true;
+            throw new IllegalStateException("Playing a game failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        return getStats();
+    }
+
+    public synchronized TournamentStats getStats() {
+        return new TournamentStats(wins, draws, losses, System.nanoTime() - start, sprt);
+    }
+
+    private void playAll(int games) {
+        // Engines are reused from game to game on one thread, with their tables cleared in between
+        Search firstEngine = first.createEngine();
+        Search secondEngine = second.createEngine();
+        for (int round = nextGame.getAndIncrement(); round < games && !stopped; round = nextGame.getAndIncrement()) {
+            firstEngine.getTable().clear();
+            secondEngine.getTable().clear();
+            boolean firstIsWhite = round % 2 == 0;
+            PgnGame game = firstIsWhite
+                    ? playGame(round, first, firstEngine, second, secondEngine)
+                    : playGame(round, second, secondEngine, first, firstEngine);
+            record(game, firstIsWhite);
+        }
+    }
+
+    private PgnGame playGame(int round, Player white, Search whiteEngine, Player black, Search blackEngine) {
+        String opening = openings.get(round / 2 % openings.size());
+        Game game = new Game(Fen.parse(opening));
+        game.setTablebase(tablebase, true);
+        // Clocks run in nanoseconds so that short moves are charged in full
+        long base = TimeUnit.MILLISECONDS.toNanos(timeControl.getBaseMillis());
+        long increment = TimeUnit.MILLISECONDS.toNanos(timeControl.getIncrementMillis());
+        long[] clocks = {base, base};
+        int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+        List<String> moves = new ArrayList<>();
+
+        String result = null;
+        String termination = "normal";
+        while (result == null) {
+            if (game.isEnded()) {
+                result = resultFor(game.getWinner());
+                termination = game.getResult().startsWith("Tablebase") ? "adjudication" : "normal";
+                break;
+            }
+            if (moves.size() >= MAX_PLIES) {
+                result = resultFor(null);
+                termination = "adjudication";
+                break;
+            }
+
+            PlayerColour side = game.getNextPlayer();
+            boolean whiteToMove = side == PlayerColour.WHITE;
+            Player player = whiteToMove ? white : black;
+            Search engine = whiteToMove ? whiteEngine : blackEngine;
+            // The engine searches a copy, which it leaves as it found it, for writing the move after
+            Board position = game.copyBoard();
+            long moveStart = System.nanoTime();
+            SearchResult search = engine.search(position, new SearchLimits(player.getMaxDepth(),
+                    timeControl.moveTimeMillis(TimeUnit.NANOSECONDS.toMillis(clocks[side.ordinal()]))));
+            clocks[side.ordinal()] -= System.nanoTime() - moveStart;
+            if (clocks[side.ordinal()] < 0) {
+                result = resultFor(side.opponent());
+                termination = "time forfeit";
+                break;
+            }
+            clocks[side.ordinal()] += increment;
+
+            int move = search.getBestMove();
+            if (move == Moves.NONE) {
+                throw new IllegalStateException(player + " found no move in " + game.toFen());
+            }
+            moves.add(San.format(move, position, legalMoves, game.getLegalMoves(legalMoves)));
+            game.makeMove(move);
+        }
+
+        return new PgnGame(round + 1, tags(round, white, black, opening, result, termination, moves.size()),
+                moves, result);
+    }
+
+    private Map<String, String> tags(int round, Player white, Player black, String opening, String result,
+                                     String termination, int plies) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", EVENT);
+        tags.put("Site", "?");
+        tags.put("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        tags.put("Round", Integer.toString(round + 1));
+        tags.put("White", white.getName());
+        tags.put("Black", black.getName());
+        tags.put("Result", result);
+        if (!opening.equals(positionOf(Fen.START_POSITION))) {
+            tags.put("SetUp", "1");
+            tags.put("FEN", opening);
+        }
+        tags.put("TimeControl", timeControl.toString());
+        tags.put("PlyCount", Integer.toString(plies));
+        tags.put("Termination", termination);
+        return Collections.unmodifiableMap(tags);
+    }
+
+    private synchronized void record(PgnGame game, boolean firstIsWhite) {
+        switch (game.getResult()) {
+            case "1-0":
+                if (firstIsWhite) {
+                    wins++;
+                } else {
+                    losses++;
+                }
+                break;
+            case "0-1":
+                if (firstIsWhite) {
+                    losses++;
+                } else {
+                    wins++;
+                }
+                break;
+            default:
+                draws++;
+        }
+
+        if (pgn != null) {
+            try {
+                pgn.write(game);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        TournamentStats stats = getStats();
+        for (TournamentListener listener : listeners) {
+            listener.onGameFinished(game, stats);
+        }
+        if (stats.getVerdict() != Sprt.Verdict.CONTINUE) {
+            stopped = true;
+        }
+    }
+
+    private static String resultFor(PlayerColour winner) {
+        if (winner == null) {
+            return "1/2-1/2";
+        }
+        return winner == PlayerColour.WHITE ? "1-0" : "0-1";
+    }
+
+    /**
+     * The placement, side to move, castling and en passant fields of a FEN or EPD line.
+     */
+    static String positionOf(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Opening needs at least four FEN fields: " + line);
+        }
+        return fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+    }
+
+    /**
+     * Usage: {@code Tournament --games=<n> --tc=<base+increment> [--pgn=<file>] [--openings=<file>]
+     * [--threads=<n>] [--sprt=<elo0>,<elo1>] [--tablebases=<directory>] [--first=<engine>]
+     * [--second=<engine>]}, where an engine is written as comma-separated {@code hash=<megabytes>},
+     * {@code depth=<plies>} and {@code book=<file>} options. Prints the standings after every game.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Options are written as --name=value: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        if (!options.containsKey("games") || !options.containsKey("tc")) {
+            System.err.println("Usage: Tournament --games=<n> --tc=<base+increment> [--pgn=<file>] [--openings=<file>]"
+                    + " [--threads=<n>] [--sprt=<elo0>,<elo1>] [--tablebases=<directory>]"
+                    + " [--first=<engine>] [--second=<engine>]");
+            System.exit(2);
+        }
+
+        List<String> openings = Collections.singletonList(Fen.START_POSITION);
+        if (options.containsKey("openings")) {
+            openings = new ArrayList<>();
+            for (String line : Files.readAllLines(Paths.get(options.get("openings")), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    openings.add(line);
+                }
+            }
+        }
+        int threads = options.containsKey("threads")
+                ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        Tournament tournament = new Tournament(
+                player("first", options.getOrDefault("first", "")),
+                player("second", options.getOrDefault("second", "")),
+                TimeControl.parse(options.get("tc")), openings, threads);
+        if (options.containsKey("sprt")) {
+            String[] elos = options.get("sprt").split(",");
+            tournament.setSprt(new Sprt(Double.parseDouble(elos[0]), Double.parseDouble(elos[1])));
+        }
+        if (options.containsKey("tablebases")) {
+            tournament.setTablebase(Tablebase.open(Paths.get(options.get("tablebases"))));
+        }
+        PgnWriter pgn = options.containsKey("pgn") ? PgnWriter.open(Paths.get(options.get("pgn"))) : null;
+        tournament.setPgnOutput(pgn);
+        tournament.addListener((game, stats) -> System.out.println(stats));
+        try {
+            TournamentStats stats = tournament.play(Integer.parseInt(options.get("games")));
+            System.out.println("Final: " + stats);
+        } finally {
+            if (pgn != null) {
+                pgn.close();
+            }
+        }
+    }
+
+    private static Player player(String name, String spec) throws IOException {
+        int megabytes = Search.DEFAULT_TABLE_MEGABYTES;
+        int depth = SearchLimits.MAX_DEPTH;
+        OpeningBook book = null;
+        for (String option : spec.split(",")) {
+            if (option.isEmpty()) {
+                continue;
+            }
+            String[] pair = option.split("=", 2);
+            if (pair.length < 2) {
+                throw new IllegalArgumentException("Engine options are written as name=value: " + option);
+            }
+            switch (pair[0]) {
+                case "hash":
+                    megabytes = Integer.parseInt(pair[1]);
+                    break;
+                case "depth":
+                    depth = Integer.parseInt(pair[1]);
+                    break;
+                case "book":
+                    book = OpeningBook.open(Paths.get(pair[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown engine option: " + pair[0]);
+            }
+        }
+        int tableMegabytes = megabytes;
+        OpeningBook openingBook = book;
+        return new Player(spec.isEmpty() ? name : name + " (" + spec + ")", () -> {
+            Search search = new Search(new TranspositionTable(tableMegabytes));
+            search.setOpeningBook(openingBook);
+            return search;
+        }, depth);
+    }
+}
@@ -0,0 +1,10 @@
+package training.chessington.tournament;
+
+import training.chessington.pgn.PgnGame;
+
+public interface TournamentListener {
+    /**
+     * Called after each game, one game at a time, with the game and the standings that include it.
+     */
+    void onGameFinished(PgnGame game, TournamentStats stats);
+}
@@ -0,0 +1,108 @@
+package training.chessington.tournament;
+
+/**
+ * The standings of a tournament at one moment, from the first player's point of view.
+ */
+public final class TournamentStats {
+    // Two-sided 95% confidence
+    private static final double Z = 1.959964;
+
+    private final long wins;
+    private final long draws;
+    private final long losses;
+    private final long elapsedNanos;
+    private final Sprt sprt;
+
+    public TournamentStats(long wins, long draws, long losses, long elapsedNanos, Sprt sprt) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+        this.elapsedNanos = elapsedNanos;
+        this.sprt = sprt;
+    }
+
+    public long getGames() {
+        return wins + draws + losses;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * The first player's points per game, a win counting 1 and a draw a half.
+     */
+    public double getScore() {
+        return getGames() == 0 ? 0.5 : (wins + draws * 0.5) / getGames();
+    }
+
+    /**
+     * How much stronger the first player is, in Elo, estimated from its score; infinite when one side
+     * has won every game.
+     */
+    public double getEloDifference() {
+        return elo(getScore());
+    }
+
+    /**
+     * Half the width of the 95% confidence interval around {@link #getEloDifference()}.
+     */
+    public double getEloMargin() {
+        long games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = getScore();
+        double deviation = Math.sqrt((wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games / games);
+        return (elo(score + Z * deviation) - elo(score - Z * deviation)) / 2;
+    }
+
+    public double getGamesPerHour() {
+        return elapsedNanos == 0 ? 0 : getGames() * 3600e9 / elapsedNanos;
+    }
+
+    /**
+     * The SPRT's log-likelihood ratio, or 0 without one.
+     */
+    public double getLogLikelihoodRatio() {
+        return sprt == null ? 0 : sprt.logLikelihoodRatio(wins, draws, losses);
+    }
+
+    public Sprt.Verdict getVerdict() {
+        return sprt == null ? Sprt.Verdict.CONTINUE : sprt.verdict(wins, draws, losses);
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public String toString() {
+        String standings = String.format("Games %d: +%d -%d =%d, Elo %.1f +/- %.1f, %.0f games/hour",
+                getGames(), wins, losses, draws, getEloDifference(), getEloMargin(), getGamesPerHour());
+        if (sprt == null) {
+            return standings;
+        }
+        return standings + String.format(", LLR %.2f [%.2f, %.2f] %s", getLogLikelihoodRatio(),
+                sprt.getLowerBound(), sprt.getUpperBound(), getVerdict());
+    }
+}
@@ -1,13 +1,24 @@
 package training.chessington.view;
 
+import javafx.animation.AnimationTimer;
+import javafx.concurrent.Task;
 import javafx.scene.Parent;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.engine.SearchResult;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
 import training.chessington.model.Game;
 import training.chessington.model.InvalidMoveException;
 import training.chessington.model.Move;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -17,15 +28,39 @@ public class ChessApp extends Parent {
     private static final Logger LOGGER = LogManager.getLogger();
 
     private final Game game;
+    private final Search engine;
+    private final PlayerColour engineColour;
+    private final long engineMoveMillis;
     private GridPane grid;
     private Square selectedSquare;
     private Set<Square> validMoveSquares = new HashSet<>();
+    private boolean engineThinking = false;
+
+    // Squares changed by moves since the last pulse, redrawn together on the next one
+    private long dirtySquares;
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            redrawDirtySquares();
+        }
+    };
 
     public ChessApp(Game game) {
+        this(game, null, null, 0);
+    }
+
+    public ChessApp(Game game, Search engine, PlayerColour engineColour, long engineMoveMillis) {
         this.game = game;
+        this.engine = engine;
+        this.engineColour = engineColour;
+        this.engineMoveMillis = engineMoveMillis;
         buildDisplayBoard();
         redrawPieces();
-        getChildren().add(grid);
+        game.addListener(this::onSquaresChanged);
+        Button takeBack = new Button("Take back");
+        takeBack.setOnAction(e -> onTakeBack());
+        getChildren().add(new VBox(grid, takeBack));
+        startEngineIfToMove();
     }
 
     private Square[][] squares = new Square[Game.SIZE][Game.SIZE];
@@ -44,6 +79,9 @@ public class ChessApp extends Parent {
     }
 
     private void onSquareClicked(Square square) {
+        if (engineThinking) {
+            return;
+        }
         if (validMoveSquares.contains(square)) {
             onMoveMade(square);
         } else {
@@ -57,10 +95,59 @@ public class ChessApp extends Parent {
         } catch (InvalidMoveException e) {
             LOGGER.error("Invalid move attempted", e);
         }
-        redrawPieces();
         resetHighlighting();
-        validMoveSquares.clear();
-        selectedSquare = null;
+
+        if (game.isEnded()) {
+            showResult(game.getResult());
+        } else {
+            startEngineIfToMove();
+        }
+    }
+
+    private void onTakeBack() {
+        if (engineThinking || !game.canUnmakeMove()) {
+            return;
+        }
+        resetHighlighting();
+        game.unmakeMove();
+        // Against the engine, take back its reply as well, so that the player is to move again
+        if (engine != null && game.getNextPlayer() == engineColour && game.canUnmakeMove()) {
+            game.unmakeMove();
+        }
+        startEngineIfToMove();
+    }
+
+    private void startEngineIfToMove() {
+        if (engine == null || game.isEnded() || game.getNextPlayer() != engineColour) {
+            return;
+        }
+
+        engineThinking = true;
+        // Copied here on the FX thread, which is the only one that touches the game
+        Board position = game.copyBoard();
+        Task<SearchResult> search = new Task<SearchResult>() {
+            @Override
+            protected SearchResult call() {
+                return engine.search(position, SearchLimits.moveTime(engineMoveMillis));
+            }
+        };
+        search.setOnSucceeded(e -> onEngineMove(search.getValue()));
+        search.setOnFailed(e -> {
+            engineThinking = false;
+            LOGGER.error("Engine search failed", search.getException());
+        });
+
+        Thread thread = new Thread(search, "chessington-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void onEngineMove(SearchResult result) {
+        engineThinking = false;
+        LOGGER.info("Engine played {}", result);
+        if (result.getBestMove() != Moves.NONE) {
+            game.makeMove(result.getBestMove());
+        }
 
         if (game.isEnded()) {
             showResult(game.getResult());
@@ -75,7 +162,6 @@ public class ChessApp extends Parent {
     }
 
     private void onNewSquareSelected(Square square) {
-        validMoveSquares.clear();
         resetHighlighting();
         selectedSquare = square;
         square.showAsSelected();
@@ -94,11 +180,32 @@ public class ChessApp extends Parent {
         }
     }
 
+    private void onSquaresChanged(long changed) {
+        if (dirtySquares == 0) {
+            renderer.start();
+        }
+        dirtySquares |= changed;
+    }
+
+    private void redrawDirtySquares() {
+        renderer.stop();
+        for (long dirty = dirtySquares; dirty != 0; dirty = Bitboards.withoutFirst(dirty)) {
+            int square = Bitboards.first(dirty);
+            int row = Bitboards.row(square);
+            int col = Bitboards.col(square);
+            squares[row][col].setPiece(game.pieceAt(row, col));
+        }
+        dirtySquares = 0;
+    }
+
     private void resetHighlighting() {
-        for (int row = 0; row < Game.SIZE; row++) {
-            for (int col = 0; col < Game.SIZE; col++) {
-                squares[row][col].resetHighlighting();
-            }
+        if (selectedSquare != null) {
+            selectedSquare.resetHighlighting();
+            selectedSquare = null;
         }
+        for (Square square : validMoveSquares) {
+            square.resetHighlighting();
+        }
+        validMoveSquares.clear();
     }
 }
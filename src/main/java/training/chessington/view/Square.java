@@ -34,7 +34,7 @@ public class Square extends Parent {
     private Rectangle background;
 
     public Square(int row, int col) {
-        this.coordinates = new Coordinates(row, col);
+        this.coordinates = Coordinates.of(row, col);
         createBackground();
         createText();
         getChildren().addAll(background, text);
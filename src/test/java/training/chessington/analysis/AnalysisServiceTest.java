@@ -0,0 +1,105 @@
+package training.chessington.analysis;
+
+import org.junit.After;
+import org.junit.Test;
+import training.chessington.engine.SearchResult;
+import training.chessington.engine.TranspositionTable;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.perft.PerftPosition;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class AnalysisServiceTest {
+    private final AnalysisService service = new AnalysisService(1, 16, new TranspositionTable(16));
+
+    @After
+    public void tearDown() {
+        service.close();
+    }
+
+    @Test
+    public void answersRepeatedRequestsFromTheCache() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        SearchResult first = service.analyse(board, 3, 10_000).join();
+
+        // Act
+        SearchResult second = service.analyse(board, 3, 10_000).join();
+        SearchResult shallower = service.analyse(board, 2, 10_000).join();
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(shallower).isSameAs(first);
+        assertThat(service.getSearches()).isEqualTo(1);
+        assertThat(service.getCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchesAgainForDeeperRequests() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        service.analyse(board, 2, 10_000).join();
+
+        // Act
+        SearchResult deeper = service.analyse(board, 4, 10_000).join();
+
+        // Assert
+        assertThat(deeper.getDepth()).isEqualTo(4);
+        assertThat(service.getSearches()).isEqualTo(2);
+    }
+
+    @Test
+    public void coalescesIdenticalRequestsInABatch() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.MIDDLEGAME.getFen());
+        List<AnalysisRequest> batch = Arrays.asList(
+                new AnalysisRequest(board, 5, 10_000),
+                new AnalysisRequest(board, 4, 10_000),
+                new AnalysisRequest(board, 5, 10_000));
+
+        // Act
+        List<CompletableFuture<SearchResult>> results = service.analyseAll(batch);
+
+        // Assert
+        assertThat(results.get(1).join()).isSameAs(results.get(0).join()).isSameAs(results.get(2).join());
+        assertThat(service.getSearches()).isEqualTo(1);
+        assertThat(service.getCoalesced()).isEqualTo(2);
+    }
+
+    @Test
+    public void laterDeadlineDoesNotShareASoonerSearch() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        CompletableFuture<SearchResult> hurried = service.analyse(board, 5, 1);
+
+        // Act
+        CompletableFuture<SearchResult> patient = service.analyse(board, 5, 10_000);
+
+        // Assert
+        assertThat(patient.join().getDepth()).isEqualTo(5);
+        assertThat(patient).isNotSameAs(hurried);
+        assertThat(service.getCoalesced()).isZero();
+    }
+
+    @Test
+    public void failsRequestsWhoseDeadlinePassesWhileWaiting() {
+        // Arrange
+        CompletableFuture<SearchResult> busy = service.analyse(Fen.parse(PerftPosition.KIWIPETE.getFen()), 64, 200);
+
+        // Act
+        CompletableFuture<SearchResult> waiting = service.analyse(Board.forNewGame(), 64, 300);
+        CompletableFuture<SearchResult> expired = service.analyse(Fen.parse(PerftPosition.MIDDLEGAME.getFen()), 64, 1);
+
+        // Assert
+        assertThat(busy.join().getBestMove()).isNotZero();
+        assertThat(waiting.join().getBestMove()).isNotZero();
+        assertThatThrownBy(expired::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(service.getExpired()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+package training.chessington.book;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.engine.SearchResult;
+import training.chessington.model.Board;
+import training.chessington.model.Moves;
+import training.chessington.pgn.PgnReader;
+import training.chessington.pgn.San;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class OpeningBookTest {
+    private static final String GAMES = repeat("1. e4 e5 2. Nf3 1-0\n\n", 3)
+            + "1. d4 d5 0-1\n\n"
+            + repeat("1. e4 c5 1/2-1/2\n\n", 2);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void bookCountsMovesAndScalesWeightsPerPosition() throws Exception {
+        // Arrange
+        Path file = buildBook(1000);
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            // Act
+            List<BookMove> moves = book.getMoves(Board.forNewGame());
+
+            // Assert
+            assertThat(moves).extracting(move -> Moves.toUci(move.getMove())).containsExactly("e2e4", "d2d4");
+            assertThat(moves).extracting(BookMove::getCount).containsExactly(5L, 1L);
+            assertThat(moves).extracting(BookMove::getWeight).containsExactly(BookFormat.MAX_WEIGHT, 0);
+        }
+    }
+
+    @Test
+    public void lookupsWorkAcrossSpilledRunsAndMappedSegments() throws Exception {
+        // Arrange
+        Path file = buildBook(3);
+        Board afterE4 = Board.forNewGame();
+        afterE4.makeMove(San.parse("e4", afterE4));
+
+        try (OpeningBook book = new OpeningBook(FileChannel.open(file, StandardOpenOption.READ), 1)) {
+            // Act
+            List<BookMove> replies = book.getMoves(afterE4);
+
+            // Assert
+            assertThat(book.size()).isEqualTo(6);
+            assertThat(replies).extracting(move -> Moves.toUci(move.getMove())).containsExactly("e7e5", "c7c5");
+            assertThat(replies).extracting(BookMove::getWeight).containsExactly(0, BookFormat.MAX_WEIGHT);
+            assertThat(book.getMoves(0x1234L)).isEmpty();
+        }
+    }
+
+    @Test
+    public void searchPlaysBookMoveWhenPositionIsInBook() throws Exception {
+        // Arrange
+        Path file = buildBook(1000);
+        Search search = new Search();
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            search.setOpeningBook(book);
+
+            // Act
+            SearchResult result = search.search(Board.forNewGame(), SearchLimits.depth(4));
+
+            // Assert
+            assertThat(Moves.toUci(result.getBestMove())).isEqualTo("e2e4");
+            assertThat(result.getNodes()).isZero();
+        }
+    }
+
+    private Path buildBook(int chunkEntries) throws Exception {
+        Path file = folder.newFile("test.book").toPath();
+        byte[] pgn = GAMES.getBytes(StandardCharsets.US_ASCII);
+        try (BookBuilder builder = new BookBuilder(BookBuilder.DEFAULT_MAX_PLY, chunkEntries, folder.getRoot().toPath());
+             PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn)))) {
+            builder.addAll(reader);
+            builder.build(file);
+        }
+        return file;
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            repeated.append(text);
+        }
+        return repeated.toString();
+    }
+}
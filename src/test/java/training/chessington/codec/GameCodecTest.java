@@ -0,0 +1,143 @@
+package training.chessington.codec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.Game;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.perft.PerftPosition;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class GameCodecTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void positionsSurviveRoundTripInThirtyTwoBytes() {
+        for (PerftPosition position : PerftPosition.values()) {
+            // Arrange
+            Board board = Fen.parse(position.getFen());
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+
+            // Act
+            PositionCodec.encode(board, buffer);
+            buffer.flip();
+            Board decoded = PositionCodec.decode(buffer);
+
+            // Assert
+            assertThat(buffer.position()).isEqualTo(PositionCodec.BYTES);
+            assertThat(decoded.toFen()).isEqualTo(board.toFen());
+            assertThat(decoded.getZobristKey()).isEqualTo(board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void gameIsStoredAsStartPositionAndMoves() {
+        // Arrange
+        Game game = playedGame(Fen.parse(PerftPosition.KIWIPETE.getFen()), 12);
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.encodedSize(game));
+
+        // Act
+        GameCodec.encode(game, buffer);
+        buffer.flip();
+        Game decoded = GameCodec.decode(buffer);
+
+        // Assert
+        assertThat(buffer.capacity()).isEqualTo(PositionCodec.BYTES + 2 + 2 * 12);
+        assertThat(decoded.getMoveCount()).isEqualTo(12);
+        assertThat(decoded.toFen()).isEqualTo(game.toFen());
+        for (int i = 0; i < 12; i++) {
+            decoded.unmakeMove();
+        }
+        assertThat(decoded.toFen()).isEqualTo(PerftPosition.KIWIPETE.getFen());
+    }
+
+    @Test
+    public void gameFileCanBeWrittenAndStreamedBack() throws Exception {
+        // Arrange
+        Path file = folder.newFile("games.bin").toPath();
+        List<Game> games = new ArrayList<>();
+        for (int length = 0; length < 40; length++) {
+            games.add(playedGame(Board.forNewGame(), length));
+        }
+
+        // Act
+        try (GameWriter writer = GameWriter.append(file)) {
+            for (Game game : games) {
+                writer.write(game);
+            }
+        }
+        List<String> read = new ArrayList<>();
+        try (GameReader reader = new GameReader(FileChannel.open(file, StandardOpenOption.READ), 64)) {
+            for (Game game = reader.next(); game != null; game = reader.next()) {
+                read.add(game.toFen());
+            }
+        }
+
+        // Assert
+        assertThat(read).hasSize(40);
+        for (int i = 0; i < games.size(); i++) {
+            assertThat(read.get(i)).isEqualTo(games.get(i).toFen());
+        }
+    }
+
+    @Test
+    public void positionFileSupportsRandomAccess() throws Exception {
+        // Arrange
+        Path file = folder.newFile("positions.bin").toPath();
+        List<Board> boards = new ArrayList<>();
+        for (PerftPosition position : PerftPosition.values()) {
+            boards.add(Fen.parse(position.getFen()));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Act
+            PositionCodec.writeAll(channel, boards);
+            Board board = Board.empty();
+            PositionCodec.read(channel, 3, board, ByteBuffer.allocate(PositionCodec.BYTES));
+
+            // Assert
+            assertThat(PositionCodec.count(channel)).isEqualTo(boards.size());
+            assertThat(board.toFen()).isEqualTo(boards.get(3).toFen());
+        }
+    }
+
+    @Test
+    public void corruptMoveIsRejected() {
+        // Arrange
+        Game game = playedGame(Board.forNewGame(), 4);
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.encodedSize(game));
+        GameCodec.encode(game, buffer);
+        int lastMove = PositionCodec.BYTES + 2 + 2 * 3;
+        buffer.putShort(lastMove, Short.reverseBytes((short) Moves.of(0, 63, Moves.QUIET)));
+        buffer.flip();
+
+        // Act / Assert
+        assertThatThrownBy(() -> GameCodec.decode(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ply 4");
+    }
+
+    // Plays a fixed sequence of legal moves, so that the same length always gives the same game
+    private static Game playedGame(Board board, int plies) {
+        Game game = new Game(board);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int count = game.getLegalMoves(moves);
+            int move = moves[ply % count];
+            game.makeMove(move);
+        }
+        return game;
+    }
+}
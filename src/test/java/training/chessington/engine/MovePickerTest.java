@@ -0,0 +1,126 @@
+package training.chessington.engine;
+
+import org.junit.Test;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.MoveGenerator;
+import training.chessington.model.Moves;
+import training.chessington.perft.PerftPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MovePickerTest {
+    @Test
+    public void picksEveryPseudoLegalMoveExactlyOnce() {
+        for (PerftPosition position : PerftPosition.values()) {
+            // Arrange
+            Board board = Fen.parse(position.getFen());
+            int[] expected = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generatePseudoLegalMoves(board, expected, 0);
+            MovePicker picker = new MovePicker();
+            picker.reset(board, expected[count - 1], expected[0], Moves.NONE, new int[64 * 64]);
+
+            // Act
+            List<Integer> picked = pickAll(picker);
+
+            // Assert
+            assertThat(picked).as(position.name()).containsExactlyInAnyOrder(boxed(expected, count));
+        }
+    }
+
+    @Test
+    public void picksHashMoveThenGoodCapturesThenKillers() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/R3K3 w - - 0 1");
+        int hashMove = Moves.of(square("a1"), square("a7"), Moves.QUIET);
+        int killer = Moves.of(square("e1"), square("f2"), Moves.QUIET);
+        MovePicker picker = new MovePicker();
+        picker.reset(board, hashMove, killer, Moves.NONE, new int[64 * 64]);
+
+        // Act
+        List<Integer> picked = pickAll(picker);
+
+        // Assert
+        assertThat(picked.subList(0, 3)).containsExactly(
+                hashMove, Moves.of(square("d2"), square("d5"), Moves.CAPTURE), killer);
+    }
+
+    @Test
+    public void skipsKillerThatIsNotPseudoLegal() {
+        // Arrange
+        Board board = Fen.parse(Fen.START_POSITION);
+        int killer = Moves.of(square("e1"), square("e2"), Moves.QUIET);
+        MovePicker picker = new MovePicker();
+        picker.reset(board, Moves.NONE, killer, Moves.NONE, new int[64 * 64]);
+
+        // Act
+        List<Integer> picked = pickAll(picker);
+
+        // Assert
+        assertThat(picked).hasSize(20).doesNotContain(killer);
+    }
+
+    @Test
+    public void putsLosingCapturesLast() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - - 0 1");
+        int losingCapture = Moves.of(square("d2"), square("d5"), Moves.CAPTURE);
+        MovePicker picker = new MovePicker();
+        picker.reset(board, Moves.NONE, Moves.NONE, Moves.NONE, new int[64 * 64]);
+
+        // Act
+        List<Integer> picked = pickAll(picker);
+
+        // Assert
+        assertThat(picked.get(picked.size() - 1)).isEqualTo(losingCapture);
+        assertThat(picker.staticExchange(board, losingCapture)).isEqualTo(-800);
+    }
+
+    @Test
+    public void capturesOnlyLeavesOutQuietAndLosingMoves() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/2p5/3p4/8/8/3Q2p1/4K3 w - - 0 1");
+        MovePicker picker = new MovePicker();
+        picker.resetCaptures(board);
+
+        // Act
+        List<Integer> picked = pickAll(picker);
+
+        // Assert
+        assertThat(picked).containsExactly(Moves.of(square("d2"), square("g2"), Moves.CAPTURE));
+    }
+
+    @Test
+    public void staticExchangeCountsPiecesRevealedBehindAttackers() {
+        // Arrange
+        Board board = Fen.parse("3rk3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1");
+        int capture = Moves.of(square("d2"), square("d5"), Moves.CAPTURE);
+
+        // Act
+        int gain = new MovePicker().staticExchange(board, capture);
+
+        // Assert
+        assertThat(gain).isEqualTo(-400);
+    }
+
+    private static List<Integer> pickAll(MovePicker picker) {
+        List<Integer> picked = new ArrayList<>();
+        for (int move = picker.next(); move != Moves.NONE; move = picker.next()) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    private static Integer[] boxed(int[] moves, int count) {
+        return Arrays.stream(moves, 0, count).boxed().toArray(Integer[]::new);
+    }
+
+    private static int square(String name) {
+        return Fen.parseSquare(name);
+    }
+}
@@ -0,0 +1,78 @@
+package training.chessington.engine;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.Moves;
+import training.chessington.perft.PerftPosition;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class SearchTest {
+    @Test
+    public void findsMateInOne() {
+        // Arrange
+        Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        // Act
+        SearchResult result = new Search().search(board, SearchLimits.depth(3));
+
+        // Assert
+        assertThat(Moves.toUci(result.getBestMove())).isEqualTo("a1a8");
+        assertThat(result.isMateScore()).isTrue();
+        assertThat(result.getScore()).isPositive();
+    }
+
+    @Test
+    public void capturesHangingQueen() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        // Act
+        SearchResult result = new Search().search(board, SearchLimits.depth(4));
+
+        // Assert
+        assertThat(Moves.toUci(result.getBestMove())).isEqualTo("d2d5");
+    }
+
+    @Test
+    public void reportsStalemateAsDraw() {
+        // Arrange
+        Board board = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+
+        // Act
+        SearchResult result = new Search().search(board, SearchLimits.depth(3));
+
+        // Assert
+        assertThat(result.getBestMove()).isEqualTo(Moves.NONE);
+        assertThat(result.getScore()).isZero();
+    }
+
+    @Test
+    public void doesNotChangeTheSearchedBoard() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        long key = board.getZobristKey();
+
+        // Act
+        new Search().search(board, SearchLimits.depth(3));
+
+        // Assert
+        assertThat(board.getZobristKey()).isEqualTo(key);
+        assertThat(board.getUndoCount()).isZero();
+    }
+
+    @Test
+    public void stopsWithinTheTimeBudget() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        SearchResult result = new Search().search(board, SearchLimits.moveTime(200));
+
+        // Assert
+        assertThat(result.getBestMove()).isNotEqualTo(Moves.NONE);
+        assertThat(result.getDepth()).isGreaterThanOrEqualTo(1);
+        assertThat(result.getElapsedMillis()).isLessThan(400);
+    }
+}
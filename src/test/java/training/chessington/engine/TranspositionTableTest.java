@@ -0,0 +1,113 @@
+package training.chessington.engine;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Moves;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TranspositionTableTest {
+    // Keys that differ only above bit 32 land in the same bucket
+    private static final long SAME_BUCKET = 1L << 32;
+
+    @Test
+    public void storedEntryCanBeProbed() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Moves.of(52, 36, Moves.DOUBLE_PAWN_PUSH);
+
+        // Act
+        table.store(0x1234L, move, -250, 7, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(0x1234L);
+
+        // Assert
+        assertThat(entry).isNotEqualTo(TranspositionTable.MISS);
+        assertThat(TranspositionTable.move(entry)).isEqualTo(move);
+        assertThat(TranspositionTable.score(entry)).isEqualTo(-250);
+        assertThat(TranspositionTable.depth(entry)).isEqualTo(7);
+        assertThat(TranspositionTable.bound(entry)).isEqualTo(TranspositionTable.LOWER_BOUND);
+        assertThat(table.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void otherPositionInSameBucketIsAMiss() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(0x1234L, Moves.NONE, 10, 3, TranspositionTable.EXACT);
+
+        // Act
+        long entry = table.probe(0x1234L + SAME_BUCKET);
+
+        // Assert
+        assertThat(entry).isEqualTo(TranspositionTable.MISS);
+        assertThat(table.getHits()).isZero();
+    }
+
+    @Test
+    public void fullBucketEvictsShallowestEntry() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        for (int i = 0; i < 4; i++) {
+            table.store(0x42L + i * SAME_BUCKET, Moves.NONE, 0, 10 - i, TranspositionTable.EXACT);
+        }
+
+        // Act
+        table.store(0x42L + 4 * SAME_BUCKET, Moves.NONE, 0, 1, TranspositionTable.EXACT);
+
+        // Assert
+        assertThat(table.probe(0x42L + 3 * SAME_BUCKET)).isEqualTo(TranspositionTable.MISS);
+        assertThat(table.probe(0x42L)).isNotEqualTo(TranspositionTable.MISS);
+        assertThat(table.probe(0x42L + 4 * SAME_BUCKET)).isNotEqualTo(TranspositionTable.MISS);
+        assertThat(table.getOverwrites()).isEqualTo(1);
+        assertThat(table.getCollisions()).isEqualTo(1);
+    }
+
+    @Test
+    public void entriesFromOlderSearchesAreReplacedFirst() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(0x42L, Moves.NONE, 0, 6, TranspositionTable.EXACT);
+        table.newSearch();
+        for (int i = 1; i < 4; i++) {
+            table.store(0x42L + i * SAME_BUCKET, Moves.NONE, 0, 4, TranspositionTable.EXACT);
+        }
+
+        // Act
+        table.store(0x42L + 4 * SAME_BUCKET, Moves.NONE, 0, 4, TranspositionTable.EXACT);
+
+        // Assert
+        assertThat(table.probe(0x42L)).isEqualTo(TranspositionTable.MISS);
+    }
+
+    @Test
+    public void shallowerResultDoesNotReplaceDeeperBound() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(0x99L, Moves.NONE, 50, 8, TranspositionTable.LOWER_BOUND);
+
+        // Act
+        table.store(0x99L, Moves.NONE, -50, 2, TranspositionTable.UPPER_BOUND);
+
+        // Assert
+        long entry = table.probe(0x99L);
+        assertThat(TranspositionTable.depth(entry)).isEqualTo(8);
+        assertThat(TranspositionTable.score(entry)).isEqualTo(50);
+    }
+
+    @Test
+    public void searchesSharingATableReuseEachOthersResults() {
+        // Arrange
+        TranspositionTable table = new TranspositionTable(4);
+        Board board = Board.forNewGame();
+        Search first = new Search(table);
+        Search second = new Search(table);
+        SearchResult firstResult = first.search(board, SearchLimits.depth(5));
+
+        // Act
+        SearchResult secondResult = second.search(board, SearchLimits.depth(5));
+
+        // Assert
+        assertThat(secondResult.getNodes()).isLessThan(firstResult.getNodes());
+        assertThat(table.getHits()).isPositive();
+    }
+}
@@ -0,0 +1,146 @@
+package training.chessington.events;
+
+import org.junit.Test;
+import training.chessington.model.Fen;
+import training.chessington.model.Game;
+import training.chessington.model.Moves;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MoveEventStreamTest {
+    @Test
+    public void drainsAtMostTheRequestedNumberOfEvents() {
+        // Arrange
+        MoveEventStream stream = new MoveEventStream(8);
+        MoveEventStream.Subscription subscription = stream.subscribe();
+        publishMoves(stream, 0, 5);
+        List<Long> sequences = new ArrayList<>();
+
+        // Act
+        int first = subscription.drain(event -> sequences.add(event.getSequence()), 3);
+        int second = subscription.drain(event -> sequences.add(event.getSequence()), 3);
+
+        // Assert
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(2);
+        assertThat(sequences).containsExactly(0L, 1L, 2L, 3L, 4L);
+        assertThat(subscription.getLag()).isZero();
+    }
+
+    @Test
+    public void subscribersReadIndependently() {
+        // Arrange
+        MoveEventStream stream = new MoveEventStream(8);
+        MoveEventStream.Subscription early = stream.subscribe();
+        publishMoves(stream, 0, 2);
+        MoveEventStream.Subscription late = stream.subscribe();
+        publishMoves(stream, 2, 3);
+        List<Integer> plies = new ArrayList<>();
+
+        // Act
+        int earlyDrained = early.drain(event -> plies.add(event.getPly()));
+        int lateDrained = late.drain(event -> plies.add(event.getPly()));
+
+        // Assert
+        assertThat(earlyDrained).isEqualTo(5);
+        assertThat(lateDrained).isEqualTo(3);
+        assertThat(plies).containsExactly(1, 2, 3, 4, 5, 3, 4, 5);
+    }
+
+    @Test
+    public void lappedSubscriberMissesTheOverwrittenEvents() {
+        // Arrange
+        MoveEventStream stream = new MoveEventStream(4);
+        MoveEventStream.Subscription subscription = stream.subscribe();
+        publishMoves(stream, 0, 10);
+        List<Long> sequences = new ArrayList<>();
+
+        // Act
+        int drained = subscription.drain(event -> sequences.add(event.getSequence()));
+
+        // Assert
+        assertThat(drained).isEqualTo(4);
+        assertThat(sequences).containsExactly(6L, 7L, 8L, 9L);
+        assertThat(subscription.getMissed()).isEqualTo(6);
+    }
+
+    @Test
+    public void concurrentSubscribersSeeEveryEventInOrderOrCountItMissed() throws Exception {
+        // Arrange
+        int events = 200_000;
+        MoveEventStream stream = new MoveEventStream(64);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        long[] totals = new long[3];
+        for (int i = 0; i < totals.length; i++) {
+            int reader = i;
+            MoveEventStream.Subscription subscription = stream.subscribe();
+            readers.add(new Thread(() -> {
+                long[] last = {-1};
+                MoveEventHandler handler = event -> {
+                    if (event.getSequence() <= last[0] || event.getPly() != event.getSequence() + 1
+                            || event.getPositionKey() != ~event.getSequence()) {
+                        failure.compareAndSet(null, "Reader " + reader + " saw " + event);
+                    }
+                    last[0] = event.getSequence();
+                };
+                long drained = 0;
+                boolean finished;
+                do {
+                    finished = done.get();
+                    drained += subscription.drain(handler, 16);
+                } while (!finished || subscription.getLag() > 0);
+                totals[reader] = drained + subscription.getMissed();
+            }));
+        }
+        readers.forEach(Thread::start);
+
+        // Act
+        publishMoves(stream, 0, events);
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Assert
+        assertThat(failure.get()).isNull();
+        assertThat(totals).containsOnly(events);
+    }
+
+    @Test
+    public void gamePublishesMovesAndTakebacks() {
+        // Arrange
+        Game game = Game.fromFen(Fen.START_POSITION);
+        MoveEventStream.Subscription subscription = game.subscribe();
+        long startKey = game.getZobristKey();
+        int[] moves = new int[256];
+        int move = Moves.fromUci("e2e4", moves, game.getLegalMoves(moves));
+        List<String> seen = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+
+        // Act
+        game.makeMove(move);
+        long afterMove = game.getZobristKey();
+        game.unmakeMove();
+        subscription.drain(event -> {
+            seen.add(event.getType() + " " + Moves.toUci(event.getMove()) + " " + event.getPly());
+            keys.add(event.getPositionKey());
+        });
+
+        // Assert
+        assertThat(seen).containsExactly("MOVE e2e4 1", "TAKEBACK e2e4 0");
+        assertThat(keys).containsExactly(afterMove, startKey);
+    }
+
+    private static void publishMoves(MoveEventStream stream, int fromPly, int count) {
+        for (int ply = fromPly; ply < fromPly + count; ply++) {
+            stream.publish(MoveEvent.Type.MOVE, Moves.of(52, 36, Moves.DOUBLE_PAWN_PUSH), ply + 1, ~(long) ply, 0);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package training.chessington.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Game;
+import training.chessington.model.Move;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MetricsTest {
+    @After
+    public void tearDown() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void distributionKeepsCountTotalAndMaximum() {
+        // Arrange
+        Distribution distribution = new Distribution("test", "bytes");
+
+        // Act
+        distribution.record(100);
+        distribution.record(300);
+        MetricsSnapshot.Entry entry = distribution.snapshot();
+
+        // Assert
+        assertThat(entry.getCount()).isEqualTo(2);
+        assertThat(entry.getTotal()).isEqualTo(400);
+        assertThat(entry.getMax()).isEqualTo(300);
+        assertThat(entry.getMean()).isEqualTo(200.0);
+    }
+
+    @Test
+    public void snapshotDerivesSearchRates() {
+        // Arrange
+        Metrics.SEARCH.record(TimeUnit.SECONDS.toNanos(2));
+        Metrics.SEARCH_NODES.add(1_000_000);
+        Metrics.TABLE_PROBES.add(400);
+        Metrics.TABLE_HITS.add(100);
+
+        // Act
+        MetricsSnapshot snapshot = Metrics.snapshot();
+
+        // Assert
+        assertThat(snapshot.getNodesPerSecond()).isEqualTo(500_000.0);
+        assertThat(snapshot.getTableHitRate()).isEqualTo(0.25);
+        assertThat(snapshot.getEntries()).containsKeys("game.makeMove", "piece.knight.getAllowedMoves");
+    }
+
+    @Test
+    public void resetClearsEveryMetric() {
+        // Arrange
+        Metrics.SEARCH_NODES.add(42);
+        Metrics.MAKE_MOVE.record(1000);
+
+        // Act
+        Metrics.reset();
+
+        // Assert
+        assertThat(Metrics.snapshot().getEntries().values()).allMatch(entry -> entry.getCount() == 0);
+    }
+
+    @Test
+    public void reporterReceivesSnapshots() throws InterruptedException {
+        // Arrange
+        CountDownLatch reported = new CountDownLatch(2);
+        AtomicReference<MetricsSnapshot> last = new AtomicReference<>();
+        Metrics.SEARCH_NODES.add(7);
+
+        // Act
+        ScheduledExecutorService reporting = Metrics.startReporting(snapshot -> {
+            last.set(snapshot);
+            reported.countDown();
+        }, 10, TimeUnit.MILLISECONDS);
+
+        // Assert
+        try {
+            assertThat(reported.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(last.get().get("search.nodes").getCount()).isEqualTo(7);
+        } finally {
+            reporting.shutdown();
+        }
+    }
+
+    @Test
+    public void instrumentedPathsReportOverJmxWhenEnabled() throws Exception {
+        // Arrange
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-Dchessington.metrics=true",
+                "-cp", System.getProperty("java.class.path"), EnabledProbe.class.getName())
+                .redirectErrorStream(true);
+
+        // Act
+        Process process = builder.start();
+        Properties counts = new Properties();
+        try (InputStream output = process.getInputStream()) {
+            counts.load(output);
+        }
+        boolean exited = process.waitFor(1, TimeUnit.MINUTES);
+
+        // Assert
+        assertThat(exited).isTrue();
+        assertThat(process.exitValue()).as("probe output %s", counts).isZero();
+        assertThat(counts).containsEntry("registered", "true")
+                .containsEntry("game.makeMove", "1")
+                .containsEntry("game.makeMove.allocated", "1")
+                .containsEntry("game.getAllowedMoves", "1")
+                .containsEntry("piece.pawn.getAllowedMoves", "1")
+                .containsEntry("search", "1");
+        assertThat(Long.parseLong(counts.getProperty("search.nodes"))).isPositive();
+    }
+
+    /**
+     * Run in a JVM of its own with metrics enabled, since {@link Metrics#ENABLED} is fixed when the
+     * class loads. Prints the counts read back over JMX.
+     */
+    public static final class EnabledProbe {
+        public static void main(String[] args) throws Exception {
+            Board board = Board.forNewGame();
+            board.get(Coordinates.of(6, 4)).getAllowedMoves(Coordinates.of(6, 4), board);
+            Game game = new Game(Board.forNewGame());
+            game.getAllowedMoves(Coordinates.of(6, 4));
+            game.makeMove(new Move(Coordinates.of(6, 4), Coordinates.of(4, 4)));
+            new Search().search(Board.forNewGame(), SearchLimits.depth(3));
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+            System.out.println("registered=" + server.isRegistered(name));
+            MetricsMXBean bean = JMX.newMXBeanProxy(server, name, MetricsMXBean.class);
+            for (Map.Entry<String, Long> count : bean.getCounts().entrySet()) {
+                System.out.println(count.getKey() + "=" + count.getValue());
+            }
+        }
+    }
+}
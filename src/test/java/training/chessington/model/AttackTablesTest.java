@@ -0,0 +1,44 @@
+package training.chessington.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class AttackTablesTest {
+    @Test
+    public void slidingAttacksMatchRayWalksForRandomOccupancies() {
+        // Arrange
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            long occupied = random.nextLong() & random.nextLong();
+            int square = random.nextInt(64);
+
+            // Act / Assert
+            assertThat(AttackTables.rookAttacks(square, occupied)).isEqualTo(AttackTables.slowRookAttacks(square, occupied));
+            assertThat(AttackTables.bishopAttacks(square, occupied)).isEqualTo(AttackTables.slowBishopAttacks(square, occupied));
+        }
+    }
+
+    @Test
+    public void knightInCornerAttacksTwoSquares() {
+        // Act
+        long attacks = AttackTables.knightAttacks(Bitboards.square(0, 0));
+
+        // Assert
+        assertThat(attacks).isEqualTo(Bitboards.bit(Bitboards.square(1, 2)) | Bitboards.bit(Bitboards.square(2, 1)));
+    }
+
+    @Test
+    public void pawnsAttackTowardsTheOpponent() {
+        // Act
+        long white = AttackTables.pawnAttacks(PlayerColour.WHITE, Bitboards.square(6, 0));
+        long black = AttackTables.pawnAttacks(PlayerColour.BLACK, Bitboards.square(1, 7));
+
+        // Assert
+        assertThat(white).isEqualTo(Bitboards.bit(Bitboards.square(5, 1)));
+        assertThat(black).isEqualTo(Bitboards.bit(Bitboards.square(2, 6)));
+    }
+}
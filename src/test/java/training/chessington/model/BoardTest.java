@@ -1,13 +1,18 @@
 package training.chessington.model;
 
 import org.junit.Test;
+import training.chessington.model.pieces.Pawn;
 import training.chessington.model.pieces.Piece;
+import training.chessington.model.pieces.Pieces;
+import training.chessington.model.pieces.Queen;
 
-import static training.chessington.model.pieces.Piece.PieceType.PAWN;
+import static training.chessington.model.pieces.Piece.PieceType.*;
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class BoardTest {
+    private static final long START_POSITION_KEY = 0x617DB72C15C6E62CL;
+
     @Test
     public void newBoardHasWhitePiecesAtBottom() {
         // Arrange
@@ -47,4 +52,328 @@ public class BoardTest {
         assertThat(board.get(from)).isNull();
         assertThat(board.get(to)).isColour(PlayerColour.WHITE).isPiece(PAWN);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void newBoardHasOccupancyMasksForBothSides() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        long white = board.getPieces(PlayerColour.WHITE);
+        long black = board.getPieces(PlayerColour.BLACK);
+
+        // Assert
+        assertThat(white).isEqualTo(0xFFFF000000000000L);
+        assertThat(black).isEqualTo(0x000000000000FFFFL);
+        assertThat(board.getOccupied()).isEqualTo(white | black);
+    }
+
+    @Test
+    public void movingPieceUpdatesPieceMasks() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        board.move(new Coordinates(6, 4), new Coordinates(4, 4));
+
+        // Assert
+        long whitePawns = board.getPieces(PlayerColour.WHITE, PAWN);
+        assertThat(Bitboards.contains(whitePawns, Bitboards.square(6, 4))).isFalse();
+        assertThat(Bitboards.contains(whitePawns, Bitboards.square(4, 4))).isTrue();
+        assertThat(Bitboards.count(whitePawns)).isEqualTo(8);
+    }
+
+    @Test
+    public void movingOntoPieceRemovesItFromMasks() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        board.move(new Coordinates(6, 0), new Coordinates(1, 0));
+
+        // Assert
+        assertThat(board.get(new Coordinates(1, 0))).isColour(PlayerColour.WHITE).isPiece(PAWN);
+        assertThat(Bitboards.count(board.getPieces(PlayerColour.BLACK, PAWN))).isEqualTo(7);
+        assertThat(Bitboards.count(board.getOccupied())).isEqualTo(31);
+    }
+
+    @Test
+    public void placingPieceReplacesExistingPiece() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        board.placePiece(new Coordinates(6, 0), new Queen(PlayerColour.BLACK));
+
+        // Assert
+        assertThat(board.get(new Coordinates(6, 0))).isColour(PlayerColour.BLACK).isPiece(QUEEN);
+        assertThat(Bitboards.count(board.getPieces(PlayerColour.WHITE))).isEqualTo(15);
+        assertThat(Bitboards.contains(board.getPieces(PlayerColour.BLACK, QUEEN), Bitboards.square(6, 0))).isTrue();
+    }
+
+    @Test
+    public void unmakingCaptureRestoresCapturedPiece() {
+        // Arrange
+        Board board = Board.forNewGame();
+        board.placePiece(new Coordinates(5, 3), new Queen(PlayerColour.BLACK));
+        long occupied = board.getOccupied();
+        int capture = Moves.of(Bitboards.square(6, 4), Bitboards.square(5, 3), Moves.CAPTURE);
+
+        // Act
+        board.makeMove(capture);
+        board.unmakeMove();
+
+        // Assert
+        assertThat(board.get(new Coordinates(5, 3))).isColour(PlayerColour.BLACK).isPiece(QUEEN);
+        assertThat(board.get(new Coordinates(6, 4))).isColour(PlayerColour.WHITE).isPiece(PAWN);
+        assertThat(board.getOccupied()).isEqualTo(occupied);
+        assertThat(board.getSideToMove()).isEqualTo(PlayerColour.WHITE);
+    }
+
+    @Test
+    public void unmakingMovesRestoresCastlingEnPassantAndClocks() {
+        // Arrange
+        Board board = Board.forNewGame();
+        board.placePiece(new Coordinates(4, 3), new Pawn(PlayerColour.BLACK));
+        board.setHalfmoveClock(7);
+        int doublePush = Moves.of(Bitboards.square(6, 4), Bitboards.square(4, 4), Moves.DOUBLE_PAWN_PUSH);
+        int knightMove = Moves.of(Bitboards.square(0, 6), Bitboards.square(2, 5), Moves.QUIET);
+
+        // Act
+        board.makeMove(doublePush);
+        int enPassantAfterPush = board.getEnPassantSquare();
+        board.makeMove(knightMove);
+        board.unmakeMove();
+
+        // Assert
+        assertThat(enPassantAfterPush).isEqualTo(Bitboards.square(5, 4));
+        assertThat(board.getEnPassantSquare()).isEqualTo(Bitboards.square(5, 4));
+        assertThat(board.getHalfmoveClock()).isZero();
+        board.unmakeMove();
+        assertThat(board.getEnPassantSquare()).isEqualTo(Board.NO_SQUARE);
+        assertThat(board.getHalfmoveClock()).isEqualTo(7);
+        assertThat(board.getFullmoveNumber()).isEqualTo(1);
+        assertThat(board.getCastlingRights()).isEqualTo(CastlingRights.ALL);
+    }
+
+    @Test
+    public void unmakingCastlingAndPromotionRestoresPieces() {
+        // Arrange
+        String fen = "4k3/7P/8/8/8/8/8/R3K3 w Q - 0 1";
+        Board board = Fen.parse(fen);
+
+        // Act
+        board.makeMove(legalMove(board, "e1c1"));
+        board.makeMove(legalMove(board, "e8f7"));
+        board.makeMove(legalMove(board, "h7h8n"));
+        Piece promoted = board.get(new Coordinates(0, 7));
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+
+        // Assert
+        assertThat(promoted).isPiece(KNIGHT);
+        assertThat(board.get(new Coordinates(1, 7))).isColour(PlayerColour.WHITE).isPiece(PAWN);
+        assertThat(board.get(new Coordinates(0, 7))).isNull();
+        assertThat(board.get(new Coordinates(7, 4))).isPiece(KING);
+        assertThat(board.get(new Coordinates(7, 0))).isPiece(ROOK);
+        assertThat(board.get(new Coordinates(7, 3))).isNull();
+        assertThat(board.getCastlingRights()).isEqualTo(CastlingRights.WHITE_QUEEN_SIDE);
+        assertThat(board.toFen()).isEqualTo(fen);
+    }
+
+    @Test
+    public void enPassantSquareIsOnlyRecordedWhenCapturable() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        board.makeMove(Moves.of(Bitboards.square(6, 4), Bitboards.square(4, 4), Moves.DOUBLE_PAWN_PUSH));
+
+        // Assert
+        assertThat(board.getEnPassantSquare()).isEqualTo(Board.NO_SQUARE);
+    }
+
+    @Test
+    public void zobristKeyIsUpdatedIncrementally() {
+        // Arrange
+        Board board = Board.forNewGame();
+        board.placePiece(new Coordinates(3, 3), new Pawn(PlayerColour.WHITE));
+        board.move(new Coordinates(1, 4), new Coordinates(3, 4));
+
+        // Act
+        board.makeMove(Moves.of(Bitboards.square(1, 2), Bitboards.square(3, 2), Moves.DOUBLE_PAWN_PUSH));
+
+        // Assert
+        assertThat(board.getEnPassantSquare()).isEqualTo(Bitboards.square(2, 2));
+        assertThat(board.getZobristKey()).isEqualTo(Zobrist.compute(board));
+    }
+
+    @Test
+    public void transposedMoveOrdersGiveSameKeyAndUnmakeRestoresIt() {
+        // Arrange
+        Board first = Board.forNewGame();
+        Board second = Board.forNewGame();
+        long initialKey = first.getZobristKey();
+        int whiteKnight = Moves.of(Bitboards.square(7, 6), Bitboards.square(5, 5), Moves.QUIET);
+        int blackKnight = Moves.of(Bitboards.square(0, 6), Bitboards.square(2, 5), Moves.QUIET);
+        int whiteOtherKnight = Moves.of(Bitboards.square(7, 1), Bitboards.square(5, 2), Moves.QUIET);
+        int blackOtherKnight = Moves.of(Bitboards.square(0, 1), Bitboards.square(2, 2), Moves.QUIET);
+
+        // Act
+        first.makeMove(whiteKnight);
+        first.makeMove(blackKnight);
+        first.makeMove(whiteOtherKnight);
+        first.makeMove(blackOtherKnight);
+        second.makeMove(whiteOtherKnight);
+        second.makeMove(blackOtherKnight);
+        second.makeMove(whiteKnight);
+        second.makeMove(blackKnight);
+
+        // Assert
+        assertThat(first.getZobristKey()).isEqualTo(second.getZobristKey()).isNotEqualTo(initialKey);
+        for (int i = 0; i < 4; i++) {
+            first.unmakeMove();
+        }
+        assertThat(first.getZobristKey()).isEqualTo(initialKey).isEqualTo(Zobrist.compute(first));
+    }
+
+    @Test
+    public void zobristKeysAreStableAcrossRuns() {
+        // Act
+        long key = Board.forNewGame().getZobristKey();
+
+        // Assert
+        assertThat(key).isEqualTo(START_POSITION_KEY);
+    }
+
+    @Test
+    public void startPositionEvaluatesAsEven() {
+        // Act
+        int evaluation = Board.forNewGame().getEvaluation();
+
+        // Assert
+        assertThat(evaluation).isZero();
+    }
+
+    @Test
+    public void mirroredPositionHasOppositeEvaluation() {
+        // Arrange
+        Board board = Fen.parse("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        Board mirrored = Fen.parse("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1");
+
+        // Act
+        int evaluation = board.getEvaluation();
+
+        // Assert
+        assertThat(evaluation).isNotZero().isEqualTo(-mirrored.getEvaluation());
+    }
+
+    @Test
+    public void evaluationIsKeptUpToDateByMakeAndUnmake() {
+        // Arrange
+        Board board = Fen.parse("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        int initialEvaluation = board.getEvaluation();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+
+        // Act and assert: each move is compared with the same position set up from scratch
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            assertThat(board.getEvaluation()).as(Moves.toUci(moves[i]))
+                    .isEqualTo(Fen.parse(board.toFen()).getEvaluation());
+            board.unmakeMove();
+        }
+        assertThat(board.getEvaluation()).isEqualTo(initialEvaluation);
+    }
+
+    @Test
+    public void newBoardsShareOnePieceOfEachKind() {
+        // Arrange
+        Board board = Board.forNewGame();
+        Board other = Board.forNewGame();
+
+        // Act
+        Piece leftRook = board.get(new Coordinates(7, 0));
+        Piece rightRook = board.get(new Coordinates(7, 7));
+
+        // Assert
+        assertThat(leftRook).isSameAs(rightRook).isSameAs(Pieces.of(ROOK, PlayerColour.WHITE));
+        assertThat(other.get(new Coordinates(1, 3))).isSameAs(Pieces.of(PAWN, PlayerColour.BLACK));
+        assertThat(Fen.parse(Fen.START_POSITION).get(new Coordinates(0, 4))).isSameAs(board.get(new Coordinates(0, 4)));
+    }
+
+    @Test
+    public void promotionAndItsUndoUseTheSharedPieces() {
+        // Arrange
+        Board board = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        Piece pawn = board.get(Fen.parseSquare("b7"));
+
+        // Act
+        board.makeMove(Moves.of(Fen.parseSquare("b7"), Fen.parseSquare("b8"), Moves.QUEEN_PROMOTION));
+        Piece queen = board.get(Fen.parseSquare("b8"));
+        board.unmakeMove();
+
+        // Assert
+        assertThat(queen).isSameAs(Pieces.of(QUEEN, PlayerColour.WHITE));
+        assertThat(board.get(Fen.parseSquare("b7"))).isSameAs(pawn);
+    }
+
+    @Test
+    public void coordinatesOnTheBoardAreShared() {
+        // Act
+        Coordinates coordinates = Coordinates.of(3, 4);
+        Coordinates offBoard = Coordinates.of(3, 8);
+
+        // Assert
+        assertThat(coordinates).isSameAs(Coordinates.of(3, 4)).isSameAs(Bitboards.coordinates(Bitboards.square(3, 4)));
+        assertThat(coordinates.plus(1, -1)).isSameAs(Coordinates.of(4, 3));
+        assertThat(offBoard).isEqualTo(new Coordinates(3, 8));
+        assertThat(offBoard.hashCode()).isEqualTo(new Coordinates(3, 8).hashCode());
+    }
+
+    @Test
+    public void knightShufflesRepeatThePosition() {
+        // Arrange
+        Board board = Board.forNewGame();
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+
+        // Act and assert
+        for (int i = 0; i < 4; i++) {
+            assertThat(board.isRepetition()).isFalse();
+            board.makeMove(legalMove(board, shuffle[i]));
+        }
+        assertThat(board.isRepetition()).isTrue();
+        assertThat(board.isThreefoldRepetition()).isFalse();
+        for (int i = 0; i < 4; i++) {
+            board.makeMove(legalMove(board, shuffle[i]));
+        }
+        assertThat(board.isThreefoldRepetition()).isTrue();
+    }
+
+    @Test
+    public void repetitionReachesBackExactlyToTheLastPawnMove() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/8/8/8/8/4P3/4K2N w - - 0 1");
+        String[] moves = {"h1g3", "e8d8", "g3h1", "d8e8", "e2e3", "e8d8", "h1g3", "d8e8", "g3h1"};
+
+        // Act
+        for (String move : moves) {
+            board.makeMove(legalMove(board, move));
+        }
+
+        // Assert: the position right after the pawn move is the oldest that can repeat
+        assertThat(board.getHalfmoveClock()).isEqualTo(4);
+        assertThat(board.isRepetition()).isTrue();
+        board.unmakeMove();
+        assertThat(board.isRepetition()).isFalse();
+    }
+
+    private static int legalMove(Board board, String uci) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+        int move = Moves.fromUci(uci, moves, count);
+        assertThat(move).as(uci).isNotEqualTo(Moves.NONE);
+        return move;
+    }
+}
@@ -0,0 +1,103 @@
+package training.chessington.model;
+
+import org.junit.Test;
+import training.chessington.perft.PerftPosition;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static training.chessington.model.pieces.Piece.PieceType.*;
+import static training.chessington.model.pieces.PieceAssert.*;
+import static org.assertj.core.api.Assertions.*;
+
+public class FenTest {
+    @Test
+    public void newBoardFormatsAsStartPosition() {
+        // Arrange
+        Board board = Board.forNewGame();
+
+        // Act
+        String fen = board.toFen();
+
+        // Assert
+        assertThat(fen).isEqualTo(Fen.START_POSITION);
+    }
+
+    @Test
+    public void formattingParsedPositionGivesSameFen() {
+        for (PerftPosition position : PerftPosition.values()) {
+            // Arrange
+            Board board = Board.fromFen(position.getFen());
+
+            // Act
+            String fen = board.toFen();
+
+            // Assert
+            assertThat(fen).isEqualTo(position.getFen());
+        }
+    }
+
+    @Test
+    public void parsedBoardHasSameKeyAsPlayedBoard() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+        game.makeMove(new Move(new Coordinates(6, 6), new Coordinates(4, 6)));
+        game.makeMove(new Move(new Coordinates(0, 6), new Coordinates(2, 5)));
+
+        // Act
+        Game parsed = Game.fromFen(game.toFen());
+
+        // Assert
+        assertThat(game.toFen()).isEqualTo("rnbqkb1r/pppppppp/5n2/8/6P1/8/PPPPPP1P/RNBQKBNR w KQkq - 1 2");
+        assertThat(parsed.getZobristKey()).isEqualTo(game.getZobristKey());
+    }
+
+    @Test
+    public void clocksDefaultWhenLeftOut() {
+        // Arrange
+        String fen = "4k3/8/8/8/8/8/8/4K2R b K -";
+
+        // Act
+        Board board = Fen.parse(fen);
+
+        // Assert
+        assertThat(board.getSideToMove()).isEqualTo(PlayerColour.BLACK);
+        assertThat(board.getCastlingRights()).isEqualTo(CastlingRights.WHITE_KING_SIDE);
+        assertThat(board.getHalfmoveClock()).isZero();
+        assertThat(board.getFullmoveNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void parsesLinesOfByteBufferIntoReusedBoard() {
+        // Arrange
+        String lines = PerftPosition.KIWIPETE.getFen() + "\n" + "8/8/8/8/8/8/8/k6K w - - 12 40\n";
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.US_ASCII));
+        Board board = Board.empty();
+
+        // Act
+        Fen.parseInto(buffer, board);
+        String first = board.toFen();
+        Fen.parseInto(buffer, board);
+
+        // Assert
+        assertThat(first).isEqualTo(PerftPosition.KIWIPETE.getFen());
+        assertThat(board.get(Bitboards.square(7, 7))).isColour(PlayerColour.WHITE).isPiece(KING);
+        assertThat(Bitboards.count(board.getOccupied())).isEqualTo(2);
+        assertThat(board.getFullmoveNumber()).isEqualTo(40);
+        assertThat(board.getZobristKey()).isEqualTo(Zobrist.compute(board));
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void malformedFenIsRejected() {
+        assertThatThrownBy(() -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fen.parse("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fen.parse(Fen.START_POSITION.replace(" w ", " x ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("side to move");
+        assertThatThrownBy(() -> Fen.parse("8/8/8/8/8/8/8/8 w"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,7 +1,248 @@
 package training.chessington.model;
 
+import org.junit.Test;
+import training.chessington.model.pieces.Pawn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static training.chessington.model.pieces.Piece.PieceType.*;
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class GameTest {
+    @Test
+    public void whiteMovesFirstAndPlayersAlternate() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+
+        // Act
+        game.makeMove(new Move(new Coordinates(6, 4), new Coordinates(4, 4)));
+
+        // Assert
+        assertThat(game.getNextPlayer()).isEqualTo(PlayerColour.BLACK);
+        assertThat(game.getAllowedMoves(new Coordinates(6, 3))).isEmpty();
+        assertThat(game.getAllowedMoves(new Coordinates(1, 3))).hasSize(2);
+    }
+
+    @Test
+    public void cannotMoveOpponentsPiece() {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+
+        // Act / Assert
+        assertThatThrownBy(() -> game.makeMove(new Move(new Coordinates(1, 4), new Coordinates(3, 4))))
+                .isInstanceOf(InvalidMoveException.class);
+    }
+
+    @Test
+    public void castlingAlsoMovesTheRook() throws InvalidMoveException {
+        // Arrange
+        Board board = Board.forNewGame();
+        board.placePiece(new Coordinates(7, 5), null);
+        board.placePiece(new Coordinates(7, 6), null);
+        Game game = new Game(board);
+
+        // Act
+        game.makeMove(new Move(new Coordinates(7, 4), new Coordinates(7, 6)));
+
+        // Assert
+        assertThat(game.pieceAt(7, 6)).isColour(PlayerColour.WHITE).isPiece(KING);
+        assertThat(game.pieceAt(7, 5)).isColour(PlayerColour.WHITE).isPiece(ROOK);
+        assertThat(game.pieceAt(7, 7)).isNull();
+        assertThat(board.getCastlingRights() & CastlingRights.WHITE_KING_SIDE).isZero();
+    }
+
+    @Test
+    public void enPassantRemovesCapturedPawn() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+        game.makeMove(new Move(new Coordinates(6, 4), new Coordinates(4, 4)));
+        game.makeMove(new Move(new Coordinates(1, 0), new Coordinates(2, 0)));
+        game.makeMove(new Move(new Coordinates(4, 4), new Coordinates(3, 4)));
+        game.makeMove(new Move(new Coordinates(1, 3), new Coordinates(3, 3)));
+
+        // Act
+        game.makeMove(new Move(new Coordinates(3, 4), new Coordinates(2, 3)));
+
+        // Assert
+        assertThat(game.pieceAt(2, 3)).isColour(PlayerColour.WHITE).isPiece(PAWN);
+        assertThat(game.pieceAt(3, 3)).isNull();
+    }
+
+    @Test
+    public void pawnReachingLastRowPromotesToQueen() throws InvalidMoveException {
+        // Arrange
+        Board board = Board.empty();
+        board.placePiece(new Coordinates(1, 0), new Pawn(PlayerColour.WHITE));
+        Game game = new Game(board);
+
+        // Act
+        game.makeMove(new Move(new Coordinates(1, 0), new Coordinates(0, 0)));
+
+        // Assert
+        assertThat(game.pieceAt(0, 0)).isColour(PlayerColour.WHITE).isPiece(QUEEN);
+    }
+
+    @Test
+    public void unmakingMoveGivesTurnBack() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+        game.makeMove(new Move(new Coordinates(6, 4), new Coordinates(4, 4)));
+
+        // Act
+        game.unmakeMove();
+
+        // Assert
+        assertThat(game.getNextPlayer()).isEqualTo(PlayerColour.WHITE);
+        assertThat(game.pieceAt(6, 4)).isColour(PlayerColour.WHITE).isPiece(PAWN);
+        assertThat(game.pieceAt(4, 4)).isNull();
+        assertThat(game.canUnmakeMove()).isFalse();
+    }
+
+    @Test
+    public void pinnedPieceCanOnlyMoveAlongThePin() {
+        // Arrange
+        Game game = new Game(Fen.parse("4r1k1/8/8/8/8/8/4R3/4K3 w - - 0 1"));
+
+        // Act
+        List<Move> moves = game.getAllowedMoves(new Coordinates(6, 4));
+
+        // Assert
+        assertThat(moves).extracting(Move::getTo).allMatch(to -> to.getCol() == 4).hasSize(6);
+    }
+
+    @Test
+    public void kingCannotMoveIntoCheck() {
+        // Arrange
+        Game game = new Game(Fen.parse("4k3/8/8/8/8/8/3r4/4K3 w - - 0 1"));
+
+        // Act / Assert
+        assertThatThrownBy(() -> game.makeMove(new Move(new Coordinates(7, 4), new Coordinates(7, 3))))
+                .isInstanceOf(InvalidMoveException.class);
+        assertThat(game.getAllowedMoves(new Coordinates(7, 4)))
+                .containsExactlyInAnyOrder(
+                        new Move(new Coordinates(7, 4), new Coordinates(6, 3)),
+                        new Move(new Coordinates(7, 4), new Coordinates(7, 5)));
+    }
+
+    @Test
+    public void enPassantThatExposesTheKingIsNotAllowed() {
+        // Arrange
+        Game game = new Game(Fen.parse("8/8/8/KPp4r/8/8/8/7k w - c6 0 2"));
+
+        // Act
+        List<Move> moves = game.getAllowedMoves(new Coordinates(3, 1));
+
+        // Assert
+        assertThat(moves).containsExactly(new Move(new Coordinates(3, 1), new Coordinates(2, 1)));
+    }
+
+    @Test
+    public void checkmateEndsTheGame() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+        game.makeMove(new Move(new Coordinates(6, 5), new Coordinates(5, 5)));
+        game.makeMove(new Move(new Coordinates(1, 4), new Coordinates(3, 4)));
+        game.makeMove(new Move(new Coordinates(6, 6), new Coordinates(4, 6)));
+
+        // Act
+        game.makeMove(new Move(new Coordinates(0, 3), new Coordinates(4, 7)));
+
+        // Assert
+        assertThat(game.isEnded()).isTrue();
+        assertThat(game.getResult()).isEqualTo("Checkmate - BLACK wins");
+        assertThat(game.getAllowedMoves(new Coordinates(7, 4))).isEmpty();
+    }
+
+    @Test
+    public void stalemateEndsTheGameInADraw() throws InvalidMoveException {
+        // Arrange
+        Game game = new Game(Fen.parse("7k/8/5QK1/8/8/8/8/8 w - - 0 1"));
+
+        // Act
+        game.makeMove(new Move(new Coordinates(2, 5), new Coordinates(1, 5)));
+
+        // Assert
+        assertThat(game.isEnded()).isTrue();
+        assertThat(game.getResult()).isEqualTo("Stalemate - it's a draw");
+    }
+
+    @Test
+    public void listenersHearTheSquaresChangedByCastling() {
+        // Arrange
+        Game game = Game.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        List<Long> changes = new ArrayList<>();
+        game.addListener(changes::add);
+        int castle = Moves.of(Fen.parseSquare("e1"), Fen.parseSquare("c1"), Moves.QUEEN_CASTLE);
+        long expected = squares("e1", "c1", "a1", "d1");
+
+        // Act
+        game.makeMove(castle);
+        game.unmakeMove();
+
+        // Assert
+        assertThat(changes).containsExactly(expected, expected);
+    }
+
+    @Test
+    public void enPassantChangesTheCapturedPawnsSquare() {
+        // Arrange
+        int capture = Moves.of(Fen.parseSquare("e5"), Fen.parseSquare("d6"), Moves.EN_PASSANT);
+
+        // Act
+        long changed = Moves.changedSquares(capture);
+
+        // Assert
+        assertThat(changed).isEqualTo(squares("e5", "d6", "d5"));
+    }
+
+    private static long squares(String... names) {
+        long squares = 0;
+        for (String name : names) {
+            squares |= Bitboards.bit(Fen.parseSquare(name));
+        }
+        return squares;
+    }
+
+    @Test
+    public void threefoldRepetitionDrawsAndTakingBackReopensTheGame() {
+        // Arrange
+        Game game = new Game(Board.forNewGame());
+        String[] shuffle = {"b1c3", "b8c6", "c3b1", "c6b8"};
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            game.makeMove(legalMove(game, shuffle[i % 4]));
+        }
+        boolean endedByRepetition = game.isEnded();
+        String result = game.getResult();
+        game.unmakeMove();
+
+        // Assert
+        assertThat(endedByRepetition).isTrue();
+        assertThat(result).isEqualTo("Threefold repetition - it's a draw");
+        assertThat(game.getWinner()).isNull();
+        assertThat(game.isEnded()).isFalse();
+        assertThat(game.getMoveCount()).isEqualTo(7);
+    }
+
+    @Test
+    public void fiftyMovesWithoutCaptureOrPawnMoveDraw() {
+        // Arrange
+        Game game = Game.fromFen("4k3/8/8/8/8/8/4P3/4K2R w - - 99 80");
+
+        // Act
+        game.makeMove(legalMove(game, "h1h2"));
+
+        // Assert
+        assertThat(game.isEnded()).isTrue();
+        assertThat(game.getResult()).isEqualTo("Fifty-move rule - it's a draw");
+    }
+
+    private static int legalMove(Game game, String uci) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = game.getLegalMoves(moves);
+        return Moves.fromUci(uci, moves, count);
+    }
 }
@@ -1,7 +1,50 @@
 package training.chessington.model.pieces;
 
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.PlayerColour;
+
+import java.util.List;
+
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class BishopTest {
+    @Test
+    public void bishopMovesAlongBothDiagonals() {
+        // Arrange
+        Board board = Board.empty();
+        Piece bishop = new Bishop(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(4, 3);
+        board.placePiece(coords, bishop);
+
+        // Act
+        List<Move> moves = bishop.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).hasSize(13)
+                .contains(new Move(coords, new Coordinates(0, 7)))
+                .contains(new Move(coords, new Coordinates(7, 0)));
+    }
+
+    @Test
+    public void bishopStopsAtCaptureAndBeforeOwnPiece() {
+        // Arrange
+        Board board = Board.empty();
+        Piece bishop = new Bishop(PlayerColour.BLACK);
+        Coordinates coords = new Coordinates(0, 0);
+        board.placePiece(coords, bishop);
+        board.placePiece(new Coordinates(3, 3), new Pawn(PlayerColour.WHITE));
+
+        // Act
+        List<Move> moves = bishop.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).containsExactlyInAnyOrder(
+                new Move(coords, new Coordinates(1, 1)),
+                new Move(coords, new Coordinates(2, 2)),
+                new Move(coords, new Coordinates(3, 3)));
+    }
 }
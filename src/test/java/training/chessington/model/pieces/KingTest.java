@@ -1,7 +1,68 @@
 package training.chessington.model.pieces;
 
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.CastlingRights;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.PlayerColour;
+
+import java.util.List;
+
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class KingTest {
+    @Test
+    public void kingMovesOneSquareInAnyDirection() {
+        // Arrange
+        Board board = Board.empty();
+        Piece king = new King(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(4, 4);
+        board.placePiece(coords, king);
+
+        // Act
+        List<Move> moves = king.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).hasSize(8);
+    }
+
+    @Test
+    public void kingCanCastleBothWaysWhenPathIsClear() {
+        // Arrange
+        Board board = Board.empty();
+        Piece king = new King(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(7, 4);
+        board.placePiece(coords, king);
+        board.placePiece(new Coordinates(7, 0), new Rook(PlayerColour.WHITE));
+        board.placePiece(new Coordinates(7, 7), new Rook(PlayerColour.WHITE));
+        board.setCastlingRights(CastlingRights.ALL);
+
+        // Act
+        List<Move> moves = king.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).contains(
+                new Move(coords, new Coordinates(7, 6)),
+                new Move(coords, new Coordinates(7, 2)));
+    }
+
+    @Test
+    public void kingCannotCastleThroughAttackedSquare() {
+        // Arrange
+        Board board = Board.empty();
+        Piece king = new King(PlayerColour.BLACK);
+        Coordinates coords = new Coordinates(0, 4);
+        board.placePiece(coords, king);
+        board.placePiece(new Coordinates(0, 7), new Rook(PlayerColour.BLACK));
+        board.placePiece(new Coordinates(5, 5), new Rook(PlayerColour.WHITE));
+        board.setCastlingRights(CastlingRights.ALL);
+
+        // Act
+        List<Move> moves = king.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).doesNotContain(new Move(coords, new Coordinates(0, 6)));
+    }
 }
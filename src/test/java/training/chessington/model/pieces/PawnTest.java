@@ -1,7 +1,119 @@
 package training.chessington.model.pieces;
 
+import org.junit.Test;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.Moves;
+import training.chessington.model.PlayerColour;
+
+import java.util.List;
+
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class PawnTest {
-}
+    @Test
+    public void whitePawnCanMoveUpOneOrTwoSquaresFromStart() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(6, 4);
+        board.placePiece(coords, pawn);
+
+        // Act
+        List<Move> moves = pawn.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).containsExactlyInAnyOrder(
+                new Move(coords, coords.plus(-1, 0)),
+                new Move(coords, coords.plus(-2, 0)));
+    }
+
+    @Test
+    public void blackPawnCanOnlyMoveOneSquareAfterStart() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.BLACK);
+        Coordinates coords = new Coordinates(3, 4);
+        board.placePiece(coords, pawn);
+
+        // Act
+        List<Move> moves = pawn.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).containsExactly(new Move(coords, coords.plus(1, 0)));
+    }
+
+    @Test
+    public void pawnIsBlockedByPieceInFront() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(6, 4);
+        board.placePiece(coords, pawn);
+        board.placePiece(coords.plus(-1, 0), new Knight(PlayerColour.BLACK));
+
+        // Act
+        List<Move> moves = pawn.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).isEmpty();
+    }
+
+    @Test
+    public void pawnCapturesDiagonallyButNotOwnPieces() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(4, 4);
+        board.placePiece(coords, pawn);
+        board.placePiece(coords.plus(-1, -1), new Knight(PlayerColour.BLACK));
+        board.placePiece(coords.plus(-1, 1), new Knight(PlayerColour.WHITE));
+
+        // Act
+        List<Move> moves = pawn.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).containsExactlyInAnyOrder(
+                new Move(coords, coords.plus(-1, 0)),
+                new Move(coords, coords.plus(-1, -1)));
+    }
+
+    @Test
+    public void pawnCanCaptureEnPassant() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(3, 4);
+        board.placePiece(coords, pawn);
+        board.placePiece(coords.plus(0, 1), new Pawn(PlayerColour.BLACK));
+        board.setEnPassantSquare(Bitboards.square(coords.plus(-1, 1)));
+
+        // Act
+        List<Move> moves = pawn.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).contains(new Move(coords, coords.plus(-1, 1)));
+    }
+
+    @Test
+    public void pawnReachingLastRowGeneratesEveryPromotion() {
+        // Arrange
+        Board board = Board.empty();
+        Piece pawn = new Pawn(PlayerColour.BLACK);
+        Coordinates coords = new Coordinates(6, 0);
+        board.placePiece(coords, pawn);
+        int[] moves = new int[32];
+
+        // Act
+        int count = pawn.generateMoves(Bitboards.square(coords), board, moves, 0);
+
+        // Assert
+        assertThat(count).isEqualTo(4);
+        for (int i = 0; i < count; i++) {
+            assertThat(Moves.isPromotion(moves[i])).isTrue();
+        }
+        assertThat(pawn.getAllowedMoves(coords, board)).containsExactly(new Move(coords, coords.plus(1, 0)));
+    }}
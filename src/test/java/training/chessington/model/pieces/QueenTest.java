@@ -1,7 +1,47 @@
 package training.chessington.model.pieces;
 
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.PlayerColour;
+
+import java.util.List;
+
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class QueenTest {
+    @Test
+    public void queenCombinesRookAndBishopMoves() {
+        // Arrange
+        Board board = Board.empty();
+        Piece queen = new Queen(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(4, 3);
+        board.placePiece(coords, queen);
+
+        // Act
+        List<Move> moves = queen.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).hasSize(27);
+    }
+
+    @Test
+    public void queenCanCaptureEnemyPiece() {
+        // Arrange
+        Board board = Board.empty();
+        Piece queen = new Queen(PlayerColour.BLACK);
+        Coordinates coords = new Coordinates(0, 0);
+        board.placePiece(coords, queen);
+        board.placePiece(new Coordinates(0, 1), new Rook(PlayerColour.WHITE));
+        board.placePiece(new Coordinates(1, 0), new Rook(PlayerColour.BLACK));
+        board.placePiece(new Coordinates(1, 1), new Rook(PlayerColour.BLACK));
+
+        // Act
+        List<Move> moves = queen.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).containsExactly(new Move(coords, new Coordinates(0, 1)));
+    }
 }
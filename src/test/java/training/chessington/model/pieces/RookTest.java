@@ -1,7 +1,45 @@
 package training.chessington.model.pieces;
 
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Coordinates;
+import training.chessington.model.Move;
+import training.chessington.model.PlayerColour;
+
+import java.util.List;
+
 import static training.chessington.model.pieces.PieceAssert.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class RookTest {
+    @Test
+    public void rookMovesAlongRowAndColumn() {
+        // Arrange
+        Board board = Board.empty();
+        Piece rook = new Rook(PlayerColour.WHITE);
+        Coordinates coords = new Coordinates(4, 3);
+        board.placePiece(coords, rook);
+
+        // Act
+        List<Move> moves = rook.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).hasSize(14)
+                .contains(new Move(coords, new Coordinates(0, 3)))
+                .contains(new Move(coords, new Coordinates(4, 7)));
+    }
+
+    @Test
+    public void rookCannotMoveThroughPieces() {
+        // Arrange
+        Board board = Board.forNewGame();
+        Coordinates coords = new Coordinates(7, 0);
+        Piece rook = board.get(coords);
+
+        // Act
+        List<Move> moves = rook.getAllowedMoves(coords, board);
+
+        // Assert
+        assertThat(moves).isEmpty();
+    }
 }
@@ -0,0 +1,72 @@
+package training.chessington.parallel;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.perft.Perft;
+import training.chessington.perft.PerftPosition;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ParallelPerftTest {
+    @Test
+    public void workStealingMatchesReferenceCounts() {
+        assertMatchesReference(SplitStrategy.WORK_STEALING, 3);
+    }
+
+    @Test
+    public void staticSplittingMatchesReferenceCounts() {
+        assertMatchesReference(SplitStrategy.STATIC, 3);
+    }
+
+    @Test
+    public void countDoesNotChangeCallersBoard() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        long key = board.getZobristKey();
+
+        // Act
+        try (ParallelPerft perft = new ParallelPerft(2, SplitStrategy.WORK_STEALING, 1)) {
+            perft.count(board, 3);
+        }
+
+        // Assert
+        assertThat(board.getZobristKey()).isEqualTo(key);
+    }
+
+    @Test
+    public void rootSplitSearchIsDeterministicAcrossStrategies() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        SubtreeSearch leafCount = (position, depth) -> (int) new Perft(position).count(depth);
+
+        // Act
+        RootSplitSearch.Result stealing;
+        RootSplitSearch.Result chunked;
+        try (RootSplitSearch search = new RootSplitSearch(4, SplitStrategy.WORK_STEALING, () -> leafCount)) {
+            stealing = search.search(board, 2);
+        }
+        try (RootSplitSearch search = new RootSplitSearch(3, SplitStrategy.STATIC, () -> leafCount)) {
+            chunked = search.search(board, 2);
+        }
+
+        // Assert
+        assertThat(stealing.getMoveCount()).isEqualTo(48);
+        assertThat(chunked.getBestMove()).isEqualTo(stealing.getBestMove());
+        assertThat(chunked.getBestScore()).isEqualTo(stealing.getBestScore());
+        for (int i = 0; i < stealing.getMoveCount(); i++) {
+            assertThat(chunked.getScore(i)).isEqualTo(stealing.getScore(i));
+        }
+    }
+
+    private static void assertMatchesReference(SplitStrategy strategy, int depth) {
+        for (int parallelism : new int[]{1, 2, 4}) {
+            try (ParallelPerft perft = new ParallelPerft(parallelism, strategy, 1)) {
+                for (PerftPosition position : PerftPosition.values()) {
+                    long nodes = perft.count(Fen.parse(position.getFen()), depth);
+                    assertThat(nodes).as("%s with %d workers", position, parallelism).isEqualTo(position.getExpectedNodes(depth));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package training.chessington.perft;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PerftTest {
+    @Test
+    public void startPositionMatchesReferenceCounts() {
+        assertPerft(PerftPosition.START, 4);
+    }
+
+    @Test
+    public void kiwipeteMatchesReferenceCounts() {
+        assertPerft(PerftPosition.KIWIPETE, 3);
+    }
+
+    @Test
+    public void rookEndgameMatchesReferenceCounts() {
+        assertPerft(PerftPosition.ROOK_ENDGAME, 5);
+    }
+
+    @Test
+    public void promotionsPositionMatchesReferenceCounts() {
+        assertPerft(PerftPosition.PROMOTIONS, 3);
+    }
+
+    @Test
+    public void discoveredChecksPositionMatchesReferenceCounts() {
+        assertPerft(PerftPosition.DISCOVERED_CHECKS, 3);
+    }
+
+    @Test
+    public void middlegamePositionMatchesReferenceCounts() {
+        assertPerft(PerftPosition.MIDDLEGAME, 3);
+    }
+
+    @Test
+    public void perftLeavesBoardUnchanged() {
+        // Arrange
+        Board board = Fen.parse(PerftPosition.KIWIPETE.getFen());
+        long key = board.getZobristKey();
+        long occupied = board.getOccupied();
+
+        // Act
+        new Perft(board).count(2);
+
+        // Assert
+        assertThat(board.getZobristKey()).isEqualTo(key);
+        assertThat(board.getOccupied()).isEqualTo(occupied);
+    }
+
+    @Test
+    public void divideSumsToPerftCount() {
+        // Arrange
+        Perft perft = new Perft(Fen.parse(PerftPosition.KIWIPETE.getFen()));
+
+        // Act
+        long total = perft.divide(2).values().stream().mapToLong(Long::longValue).sum();
+
+        // Assert
+        assertThat(total).isEqualTo(PerftPosition.KIWIPETE.getExpectedNodes(2));
+    }
+
+    private static void assertPerft(PerftPosition position, int maxDepth) {
+        Perft perft = new Perft(Fen.parse(position.getFen()));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            assertThat(perft.count(depth)).as("%s at depth %d", position, depth).isEqualTo(position.getExpectedNodes(depth));
+        }
+    }
+}
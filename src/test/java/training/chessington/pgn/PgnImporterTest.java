@@ -0,0 +1,138 @@
+package training.chessington.pgn;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.Moves;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PgnImporterTest {
+    private static final String OPERA_GAME = "[Event \"Paris\"]\n"
+            + "[White \"Morphy, Paul\"]\n"
+            + "[Black \"Duke Karl / Count Isouard\"]\n"
+            + "[Result \"1-0\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3 5. Qxf3 dxe5\n"
+            + "6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 (9. Qxb7 Qb4+) 9... b5 10. Nxb5 cxb5 11. Bxb5+\n"
+            + "Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 $1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0\n"
+            + "\n";
+
+    private static final String BROKEN_GAME = "[Event \"Broken\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Ke3 Nc6 1/2-1/2\n";
+
+    private static final String SETUP_GAME = "[FEN \"4k3/P7/8/8/8/8/8/4K3 w - - 0 1\"]\n"
+            + "[SetUp \"1\"]\n"
+            + "\n"
+            + "1. a8=Q+ Kd7 *\n";
+
+    // Castling rights without the rook: the move is generated, and making it breaks the board
+    private static final String CRASHING_GAME = "[FEN \"4k3/8/8/8/8/8/8/4K3 w K - 0 1\"]\n"
+            + "[SetUp \"1\"]\n"
+            + "\n"
+            + "1. O-O *\n";
+
+    @Test
+    public void readerSkipsCommentsVariationsAndMoveNumbers() throws IOException {
+        // Arrange
+        PgnReader reader = readerFor(OPERA_GAME);
+
+        // Act
+        PgnGame game = reader.next();
+
+        // Assert
+        assertThat(game.getTag("White")).isEqualTo("Morphy, Paul");
+        assertThat(game.getMoves()).hasSize(33).startsWith("e4", "e5", "Nf3").endsWith("Rd8#");
+        assertThat(game.getMoves()).doesNotContain("Qxb7", "$1");
+        assertThat(game.getResult()).isEqualTo("1-0");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void readerSplitsConsecutiveGames() throws IOException {
+        // Arrange
+        PgnReader reader = readerFor(OPERA_GAME + BROKEN_GAME + SETUP_GAME);
+
+        // Act
+        PgnGame first = reader.next();
+        PgnGame second = reader.next();
+        PgnGame third = reader.next();
+
+        // Assert
+        assertThat(first.getNumber()).isEqualTo(1);
+        assertThat(second.getTag("Event")).isEqualTo("Broken");
+        assertThat(second.getResult()).isEqualTo("1/2-1/2");
+        assertThat(third.getMoves()).containsExactly("a8=Q+", "Kd7");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void sanResolvesDisambiguationAndPromotion() {
+        // Arrange
+        Board board = Fen.parse("4k3/P7/8/8/8/2N3N1/8/4K3 w - - 0 1");
+
+        // Act
+        int knightMove = San.parse("Nce4", board);
+        int ambiguous = San.parse("Ne4", board);
+        int promotion = San.parse("a8=N", board);
+
+        // Assert
+        assertThat(Moves.toUci(knightMove)).isEqualTo("c3e4");
+        assertThat(ambiguous).isEqualTo(Moves.NONE);
+        assertThat(Moves.toUci(promotion)).isEqualTo("a7a8n");
+    }
+
+    @Test
+    public void importerReplaysGamesAndReportsIllegalMoves() throws Exception {
+        // Arrange
+        StringBuilder archive = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            archive.append(OPERA_GAME).append(SETUP_GAME);
+        }
+        archive.append(BROKEN_GAME);
+        PgnImporter importer = new PgnImporter(3, 4);
+
+        // Act
+        ImportReport report = importer.importGames(readerFor(archive.toString()));
+
+        // Assert
+        assertThat(report.getGames()).isEqualTo(101);
+        assertThat(report.getMoves()).isEqualTo(50 * (33 + 2) + 2);
+        assertThat(report.getIllegalGames()).isEqualTo(1);
+        assertThat(report.getIllegalMoves()).hasSize(1);
+        assertThat(report.getIllegalMoves().get(0).getGameNumber()).isEqualTo(101);
+        assertThat(report.getIllegalMoves().get(0).getSan()).isEqualTo("Ke3");
+        assertThat(report.getIllegalMoves().get(0).getPly()).isEqualTo(3);
+    }
+
+    @Test(timeout = 10_000)
+    public void importerFailsWhenAReplayWorkerThrows() {
+        // Arrange
+        StringBuilder archive = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            archive.append(OPERA_GAME);
+        }
+        archive.append(CRASHING_GAME);
+        for (int i = 0; i < 50; i++) {
+            archive.append(OPERA_GAME);
+        }
+        PgnImporter importer = new PgnImporter(3, 1);
+
+        // Act
+        Throwable thrown = catchThrowable(() -> importer.importGames(readerFor(archive.toString())));
+
+        // Assert
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("Replaying a game failed");
+    }
+
+    private static PgnReader readerFor(String pgn) {
+        byte[] bytes = pgn.getBytes(StandardCharsets.UTF_8);
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)), 64);
+    }
+}
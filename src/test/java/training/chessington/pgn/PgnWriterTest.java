@@ -0,0 +1,77 @@
+package training.chessington.pgn;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PgnWriterTest {
+    private static final String OPERA_GAME = "[Event \"Paris\"]\n"
+            + "[White \"Morphy, Paul\"]\n"
+            + "[Black \"Duke Karl / Count Isouard\"]\n"
+            + "[Result \"1-0\"]\n"
+            + "\n"
+            + "1. e4 e5 2. Nf3 d6 3. d4 Bg4 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7\n"
+            + "8. Nc3 c6 9. Bg5 b5 10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7\n"
+            + "14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0\n"
+            + "\n";
+
+    private static final String SETUP_GAME = "[FEN \"4k3/P7/8/8/8/8/8/4K3 b - - 0 1\"]\n"
+            + "[SetUp \"1\"]\n"
+            + "\n"
+            + "1... Kd7 2. a8=Q *\n";
+
+    @Test
+    public void writtenGamesReadBackUnchanged() throws IOException {
+        // Arrange
+        PgnReader reader = readerFor(OPERA_GAME + SETUP_GAME);
+        PgnGame opera = reader.next();
+        PgnGame setup = reader.next();
+        StringWriter text = new StringWriter();
+
+        // Act
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(opera);
+            writer.write(setup);
+        }
+        PgnReader written = readerFor(text.toString());
+
+        // Assert
+        PgnGame first = written.next();
+        PgnGame second = written.next();
+        assertThat(first.getTags()).isEqualTo(opera.getTags());
+        assertThat(first.getMoves()).isEqualTo(opera.getMoves());
+        assertThat(second.getMoves()).isEqualTo(setup.getMoves());
+        assertThat(second.getResult()).isEqualTo("*");
+    }
+
+    @Test
+    public void wrapsMovetextAndNumbersBlackFirstMoves() throws IOException {
+        // Arrange
+        PgnReader reader = readerFor(OPERA_GAME + SETUP_GAME);
+        PgnGame opera = reader.next();
+        PgnGame setup = reader.next();
+        StringWriter text = new StringWriter();
+
+        // Act
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(opera);
+            writer.write(setup);
+        }
+
+        // Assert
+        assertThat(text.toString()).startsWith("[Event \"Paris\"]\n").contains("\n\n1. e4 e5 2. Nf3")
+                .doesNotContain("\n ").endsWith("\n\n1... Kd7 2. a8=Q *\n\n");
+        assertThat(text.toString().split("\n")).allSatisfy(line -> assertThat(line.length()).isLessThanOrEqualTo(PgnWriter.LINE_LENGTH));
+    }
+
+    private static PgnReader readerFor(String pgn) {
+        byte[] bytes = pgn.getBytes(StandardCharsets.UTF_8);
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)), 64);
+    }
+}
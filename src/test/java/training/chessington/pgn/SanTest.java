@@ -0,0 +1,66 @@
+package training.chessington.pgn;
+
+import org.junit.Test;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class SanTest {
+    private static final List<String> OPERA_GAME = Arrays.asList(
+            "e4", "e5", "Nf3", "d6", "d4", "Bg4", "dxe5", "Bxf3", "Qxf3", "dxe5",
+            "Bc4", "Nf6", "Qb3", "Qe7", "Nc3", "c6", "Bg5", "b5", "Nxb5", "cxb5", "Bxb5+",
+            "Nbd7", "O-O-O", "Rd8", "Rxd7", "Rxd7", "Rd1", "Qe6", "Bxd7+", "Nxd7", "Qb8+", "Nxb8", "Rd8#");
+
+    @Test
+    public void formatsMovesAsTheyAreWritten() {
+        // Arrange
+        Board board = Board.forNewGame();
+        List<String> formatted = new ArrayList<>();
+
+        // Act
+        for (String san : OPERA_GAME) {
+            int move = San.parse(san, board);
+            formatted.add(San.format(move, board));
+            board.makeMove(move);
+        }
+
+        // Assert
+        assertThat(formatted).isEqualTo(OPERA_GAME);
+    }
+
+    @Test
+    public void formatsDisambiguationAndPromotion() {
+        // Arrange
+        Board board = Fen.parse("4k3/P7/8/8/8/2N3N1/8/4K3 w - - 0 1");
+
+        // Act
+        String knightMove = San.format(San.parse("Nce4", board), board);
+        String promotion = San.format(San.parse("a8=Q", board), board);
+
+        // Assert
+        assertThat(knightMove).isEqualTo("Nce4");
+        assertThat(promotion).isEqualTo("a8=Q+");
+    }
+
+    @Test
+    public void formatsFromTheGivenLegalMoves() {
+        // Arrange
+        Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
+        int mate = San.parse("Ra8", board);
+
+        // Act
+        String san = San.format(mate, board, moves, count);
+
+        // Assert
+        assertThat(san).isEqualTo("Ra8#");
+        assertThat(board.toFen()).isEqualTo("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+    }
+}
@@ -0,0 +1,132 @@
+package training.chessington.server;
+
+import org.junit.After;
+import org.junit.Test;
+import training.chessington.model.Fen;
+import training.chessington.model.PlayerColour;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class GameServerTest {
+    private final GameServer server = new GameServer(4);
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void playsSubmittedMoves() {
+        // Arrange
+        long gameId = server.createGame().join().getGameId();
+
+        // Act
+        MoveResult result = server.submitMove(gameId, "e2e4").join();
+
+        // Assert
+        assertThat(result.isAccepted()).isTrue();
+        assertThat(result.getState().getFen()).isEqualTo("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        assertThat(result.getState().getNextPlayer()).isEqualTo(PlayerColour.BLACK);
+    }
+
+    @Test
+    public void rejectsIllegalMovesWithoutChangingTheGame() {
+        // Arrange
+        long gameId = server.createGame().join().getGameId();
+
+        // Act
+        MoveResult result = server.submitMove(gameId, "e2e5").join();
+
+        // Assert
+        assertThat(result.isAccepted()).isFalse();
+        assertThat(result.getState().getFen()).isEqualTo(Fen.START_POSITION);
+        assertThat(result.getState().getMoveCount()).isZero();
+    }
+
+    @Test
+    public void failsCallsForUnknownGames() {
+        // Act
+        CompletableFuture<MoveResult> result = server.submitMove(42, "e2e4");
+
+        // Assert
+        assertThatThrownBy(result::join).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void failsMovesQueuedBehindTheEndOfTheGame() {
+        // Arrange
+        long gameId = server.createGame().join().getGameId();
+
+        // Act
+        CompletableFuture<GameState> ended = server.endGame(gameId);
+        CompletableFuture<MoveResult> late = server.submitMove(gameId, "e2e4");
+
+        // Assert
+        assertThat(ended.join().getMoveCount()).isZero();
+        assertThatThrownBy(late::join).hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No game " + gameId);
+        assertThat(server.getActiveGames()).isZero();
+    }
+
+    @Test
+    public void hostsManyGamesAtOnce() {
+        // Arrange
+        List<Long> gameIds = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            gameIds.add(server.createGame().join().getGameId());
+        }
+
+        // Act
+        List<CompletableFuture<MoveResult>> results = new ArrayList<>();
+        for (String move : new String[]{"e2e4", "e7e5", "g1f3", "b8c6"}) {
+            for (long gameId : gameIds) {
+                results.add(server.submitMove(gameId, move));
+            }
+        }
+
+        // Assert
+        assertThat(results).allMatch(result -> result.join().isAccepted());
+        assertThat(server.getActiveGames()).isEqualTo(10_000);
+        assertThat(server.getState(gameIds.get(9_999)).join().getMoveCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void loopbackClientPlaysThroughTheTextProtocol() {
+        // Arrange
+        GameClient client = new LoopbackClient(new TextProtocol(server));
+        long gameId = client.createGame().join().getGameId();
+
+        // Act
+        MoveResult last = null;
+        for (String move : new String[]{"f2f3", "e7e5", "g2g4", "d8h4"}) {
+            last = client.submitMove(gameId, move).join();
+        }
+        MoveResult afterMate = client.submitMove(gameId, "e1f2").join();
+
+        // Assert
+        assertThat(last.isAccepted()).isTrue();
+        assertThat(last.getState().getResult()).isEqualTo("Checkmate - BLACK wins");
+        assertThat(afterMate.isAccepted()).isFalse();
+        assertThat(afterMate.getRejection()).isEqualTo("The game is over");
+    }
+
+    @Test
+    public void loopbackClientReportsErrors() {
+        // Arrange
+        GameClient client = new LoopbackClient(new TextProtocol(server));
+        long gameId = client.createGame().join().getGameId();
+        client.endGame(gameId).join();
+
+        // Act
+        CompletableFuture<GameState> state = client.getState(gameId);
+
+        // Assert
+        assertThatThrownBy(state::join).isInstanceOf(CompletionException.class)
+                .hasMessageContaining("No game " + gameId);
+    }
+}
@@ -0,0 +1,210 @@
+package training.chessington.tablebase;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import training.chessington.engine.Search;
+import training.chessington.engine.SearchLimits;
+import training.chessington.engine.SearchResult;
+import training.chessington.model.Bitboards;
+import training.chessington.model.Board;
+import training.chessington.model.Fen;
+import training.chessington.model.Game;
+import training.chessington.model.PlayerColour;
+import training.chessington.model.pieces.King;
+import training.chessington.model.pieces.Queen;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TablebaseTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<String> generated;
+    private static Tablebase tablebase;
+
+    @BeforeClass
+    public static void generateTables() throws Exception {
+        TablebaseGenerator generator = new TablebaseGenerator(folder.getRoot().toPath(), 4);
+        generated = generator.generate("KQvK");
+        generated.addAll(generator.generate("KvKP"));
+        tablebase = generator.getTablebase();
+    }
+
+    @Test
+    public void generatesSmallerEndgamesFirst() {
+        // Assert
+        assertThat(generated).containsExactly("KQvK", "KRvK", "KBvK", "KNvK", "KPvK");
+        assertThat(tablebase.getEndgames()).containsExactlyInAnyOrder("KQvK", "KRvK", "KBvK", "KNvK", "KPvK");
+    }
+
+    @Test
+    public void tablesCanBeReopenedFromDisk() throws Exception {
+        // Act
+        Tablebase reopened = Tablebase.open(folder.getRoot().toPath());
+
+        // Assert
+        assertThat(reopened.getEndgames()).isEqualTo(tablebase.getEndgames());
+        assertThat(reopened.getMaxPieces()).isEqualTo(3);
+    }
+
+    @Test
+    public void checkmateIsLostInNoPlies() {
+        // Act
+        int value = tablebase.probe(Fen.parse("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1"));
+
+        // Assert
+        assertThat(value).isEqualTo(-1);
+        assertThat(Tablebase.isLoss(value)).isTrue();
+        assertThat(Tablebase.pliesToMate(value)).isEqualTo(0);
+    }
+
+    @Test
+    public void mateInOneIsWonInOnePly() {
+        // Act
+        int value = tablebase.probe(Fen.parse("k7/7Q/1K6/8/8/8/8/8 w - - 0 1"));
+
+        // Assert
+        assertThat(value).isEqualTo(1);
+    }
+
+    @Test
+    public void longestQueenMateTakesTenMoves() {
+        // Arrange
+        Board board = Board.empty();
+        int longest = 0;
+
+        // Act
+        for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+            for (int queen = 0; queen < 64; queen++) {
+                for (int blackKing = 0; blackKing < 64; blackKing++) {
+                    if (whiteKing == queen || queen == blackKing || blackKing == whiteKing) {
+                        continue;
+                    }
+                    board.clear();
+                    board.placePiece(whiteKing, new King(PlayerColour.WHITE));
+                    board.placePiece(queen, new Queen(PlayerColour.WHITE));
+                    board.placePiece(blackKing, new King(PlayerColour.BLACK));
+                    int value = tablebase.probe(board);
+                    if (value != Tablebase.NOT_FOUND) {
+                        longest = Math.max(longest, Tablebase.pliesToMate(value));
+                    }
+                }
+            }
+        }
+
+        // Assert
+        assertThat(longest).isEqualTo(19);
+    }
+
+    @Test
+    public void pawnAheadOfItsKingWinsWhoeverMoves() {
+        // Act
+        int whiteToMove = tablebase.probe(Fen.parse("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        int blackToMove = tablebase.probe(Fen.parse("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"));
+
+        // Assert
+        assertThat(Tablebase.isWin(whiteToMove)).isTrue();
+        assertThat(Tablebase.isLoss(blackToMove)).isTrue();
+    }
+
+    @Test
+    public void rookPawnIsDrawnWhenTheDefenderHoldsTheCorner() {
+        // Act
+        int value = tablebase.probe(Fen.parse("7k/8/8/8/8/8/7P/7K w - - 0 1"));
+
+        // Assert
+        assertThat(value).isZero();
+    }
+
+    @Test
+    public void mirroredMaterialIsReadFromTheSameTable() {
+        // Act
+        int white = tablebase.probe(Fen.parse("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        int black = tablebase.probe(Fen.parse("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"));
+
+        // Assert
+        assertThat(black).isEqualTo(white);
+    }
+
+    @Test
+    public void positionsOutsideTheTablesAreNotFound() {
+        // Assert
+        assertThat(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/3QK2R w K - 0 1"))).isEqualTo(Tablebase.NOT_FOUND);
+        assertThat(tablebase.probe(Fen.parse(Fen.START_POSITION))).isEqualTo(Tablebase.NOT_FOUND);
+        assertThat(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1"))).isZero();
+    }
+
+    @Test
+    public void positionsWithAnEnPassantRightAreNotFound() {
+        // Arrange
+        Board board = Fen.parse("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1");
+        int withoutRight = tablebase.probe(board);
+
+        // Act
+        board.setEnPassantSquare(Bitboards.square(5, 4));
+
+        // Assert
+        assertThat(withoutRight).isNotEqualTo(Tablebase.NOT_FOUND);
+        assertThat(tablebase.probe(board)).isEqualTo(Tablebase.NOT_FOUND);
+    }
+
+    @Test
+    public void searchFindsTheTablebaseMate() {
+        // Arrange
+        Search search = new Search();
+        search.setTablebase(tablebase);
+        Board board = Fen.parse("8/8/8/3k4/8/8/8/KQ6 w - - 0 1");
+        int value = tablebase.probe(board);
+
+        // Act
+        SearchResult result = search.search(board, SearchLimits.depth(2));
+
+        // Assert
+        assertThat(result.getScore()).isEqualTo(Search.MATE - value);
+    }
+
+    @Test
+    public void gameEndsWithTheTablebaseVerdict() {
+        // Arrange
+        Game game = Game.fromFen("7k/8/8/8/8/8/7P/7K w - - 0 1");
+
+        // Act
+        game.setTablebase(tablebase);
+
+        // Assert
+        assertThat(game.isEnded()).isTrue();
+        assertThat(game.getResult()).isEqualTo("Tablebase - it's a draw");
+    }
+
+    @Test
+    public void gamePlaysOnInWonPositionsAndReportsTheMovesToMate() {
+        // Arrange
+        Game game = Game.fromFen("k7/7Q/1K6/8/8/8/8/8 w - - 0 1");
+
+        // Act
+        game.setTablebase(tablebase);
+
+        // Assert
+        assertThat(game.isEnded()).isFalse();
+        assertThat(game.getWinner()).isNull();
+        assertThat(game.getResult()).isEqualTo("Tablebase - WHITE mates in 1");
+    }
+
+    @Test
+    public void gameCanBeAdjudicatedInWonPositions() {
+        // Arrange
+        Game game = Game.fromFen("k7/7Q/1K6/8/8/8/8/8 w - - 0 1");
+
+        // Act
+        game.setTablebase(tablebase, true);
+
+        // Assert
+        assertThat(game.isEnded()).isTrue();
+        assertThat(game.getWinner()).isEqualTo(PlayerColour.WHITE);
+        assertThat(game.getResult()).isEqualTo("Tablebase - WHITE mates in 1");
+    }
+}
@@ -0,0 +1,124 @@
+package training.chessington.tournament;
+
+import org.junit.Test;
+import training.chessington.engine.Search;
+import training.chessington.engine.TranspositionTable;
+import training.chessington.model.Fen;
+import training.chessington.model.Game;
+import training.chessington.pgn.PgnGame;
+import training.chessington.pgn.PgnReader;
+import training.chessington.pgn.PgnWriter;
+import training.chessington.pgn.San;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TournamentTest {
+    private static final List<String> OPENINGS = Arrays.asList(
+            Fen.START_POSITION,
+            "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - bm Nf3;");
+
+    @Test
+    public void playsEveryOpeningWithBothColoursAndWritesLegalGames() throws Exception {
+        // Arrange
+        StringWriter text = new StringWriter();
+        Tournament tournament = new Tournament(player("deep", 3), player("shallow", 1),
+                new TimeControl(60_000, 0), OPENINGS, 2);
+        tournament.setPgnOutput(new PgnWriter(text));
+        List<TournamentStats> reports = new CopyOnWriteArrayList<>();
+        tournament.addListener((game, stats) -> reports.add(stats));
+
+        // Act
+        TournamentStats stats = tournament.play(4);
+
+        // Assert
+        assertThat(stats.getGames()).isEqualTo(4);
+        assertThat(reports).extracting(TournamentStats::getGames).containsExactly(1L, 2L, 3L, 4L);
+        List<PgnGame> games = readAll(text.toString());
+        assertThat(games).hasSize(4);
+        assertThat(games).extracting(game -> game.getTag("Round")).containsExactlyInAnyOrder("1", "2", "3", "4");
+        for (PgnGame game : games) {
+            boolean deepIsWhite = Integer.parseInt(game.getTag("Round")) % 2 == 1;
+            assertThat(game.getTag("White")).isEqualTo(deepIsWhite ? "deep" : "shallow");
+            assertThat(game.getTag("FEN") == null).isEqualTo(Integer.parseInt(game.getTag("Round")) <= 2);
+            assertReplays(game);
+        }
+    }
+
+    @Test
+    public void stopsOnceTheSprtIsDecided() throws Exception {
+        // Arrange
+        Tournament tournament = new Tournament(player("deep", 4), player("shallow", 1),
+                new TimeControl(60_000, 0), OPENINGS, 1);
+        tournament.setSprt(new Sprt(-400, 0));
+
+        // Act
+        TournamentStats stats = tournament.play(100);
+
+        // Assert
+        assertThat(stats.getVerdict()).isEqualTo(Sprt.Verdict.H1_ACCEPTED);
+        assertThat(stats.getGames()).isLessThan(100);
+        assertThat(stats.getEloDifference()).isPositive();
+    }
+
+    @Test
+    public void statsEstimateEloFromTheScore() {
+        // Arrange
+        TournamentStats even = new TournamentStats(100, 200, 100, 3_600_000_000_000L, new Sprt(0, 5));
+        TournamentStats ahead = new TournamentStats(240, 0, 160, 1_800_000_000_000L, null);
+
+        // Act and assert
+        assertThat(even.getEloDifference()).isZero();
+        assertThat(even.getGamesPerHour()).isEqualTo(400.0);
+        assertThat(even.getLogLikelihoodRatio()).isNegative();
+        assertThat(ahead.getEloDifference()).isCloseTo(70.4, within(0.1));
+        assertThat(ahead.getEloMargin()).isCloseTo(34.5, within(0.5));
+        assertThat(ahead.getGamesPerHour()).isEqualTo(800.0);
+        assertThat(ahead.getVerdict()).isEqualTo(Sprt.Verdict.CONTINUE);
+    }
+
+    @Test
+    public void timeControlsParseAsPgnWritesThem() {
+        // Act
+        TimeControl timeControl = TimeControl.parse("10+0.1");
+
+        // Assert
+        assertThat(timeControl.getBaseMillis()).isEqualTo(10_000);
+        assertThat(timeControl.getIncrementMillis()).isEqualTo(100);
+        assertThat(timeControl).hasToString("10+0.1");
+        assertThat(timeControl.moveTimeMillis(3_000)).isEqualTo(200);
+    }
+
+    private static Player player(String name, int depth) {
+        return new Player(name, () -> new Search(new TranspositionTable(1)), depth);
+    }
+
+    private static void assertReplays(PgnGame pgn) {
+        Game game = new Game(pgn.createStartingBoard());
+        int[] buffer = new int[256];
+        for (String san : pgn.getMoves()) {
+            int move = San.parse(san, game, buffer);
+            assertThat(move).as("%s in %s", san, pgn).isNotZero();
+            game.makeMove(move);
+        }
+        assertThat(game.isEnded() || "1/2-1/2".equals(pgn.getResult())).isTrue();
+    }
+
+    private static List<PgnGame> readAll(String text) throws Exception {
+        PgnReader reader = new PgnReader(Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+        List<PgnGame> games = new ArrayList<>();
+        for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+            games.add(game);
+        }
+        return games;
+    }
+}